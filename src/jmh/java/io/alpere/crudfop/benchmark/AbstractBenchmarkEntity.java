@@ -0,0 +1,21 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.model.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.MappedSuperclass;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@MappedSuperclass
+public abstract class AbstractBenchmarkEntity extends BaseEntity {
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "amount", nullable = false)
+    private long amount;
+}
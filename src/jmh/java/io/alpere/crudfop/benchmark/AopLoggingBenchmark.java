@@ -0,0 +1,88 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.cache.LruEntityCache;
+import io.alpere.crudfop.service.AopLoggingService;
+import io.alpere.crudfop.service.CrudService;
+import io.alpere.crudfop.service.CrudServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of logging aspect on service calls. Entity cache keeps database out of find one calls,
+ * log events of the aspect are dropped by appender so only building of events is measured.
+ * Proxied calls with debug on and off differ by logging, direct calls skip all proxies.
+ */
+@SuppressWarnings("unchecked")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AopLoggingBenchmark {
+    private static final int MISSING_SIZE = 1000;
+
+    @Param({"false", "true"})
+    public boolean debug;
+
+    private ConfigurableApplicationContext context;
+    private CrudService<BenchmarkEntity> proxied;
+    private CrudService<BenchmarkEntity> direct;
+    private UUID id;
+    private List<UUID> missingIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        LoggingSystem.get(getClass().getClassLoader())
+                .setLogLevel(AopLoggingService.class.getName(), debug ? LogLevel.DEBUG : LogLevel.INFO);
+        proxied = BenchmarkApplication.crudService(context);
+        direct = (CrudService<BenchmarkEntity>) AopProxyUtils.getSingletonTarget(proxied);
+        ((CrudServiceImpl<BenchmarkEntity>) direct).setEntityCache(new LruEntityCache());
+        id = BenchmarkApplication.insert(proxied, BenchmarkEntity::new, 1).get(0);
+        proxied.findOne(id);
+        missingIds = new ArrayList<>(MISSING_SIZE);
+        for (int i = 0; i < MISSING_SIZE; i++) {
+            missingIds.add(UUID.randomUUID());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BenchmarkEntity findOneProxied() {
+        return proxied.findOne(id);
+    }
+
+    @Benchmark
+    public BenchmarkEntity findOneDirect() {
+        return direct.findOne(id);
+    }
+
+    @Benchmark
+    public Object softDeleteMissingProxied() {
+        return proxied.softDeleteAllInBatch(missingIds);
+    }
+
+    @Benchmark
+    public Object softDeleteMissingDirect() {
+        return direct.softDeleteAllInBatch(missingIds);
+    }
+}
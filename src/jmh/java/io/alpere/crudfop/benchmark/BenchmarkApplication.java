@@ -0,0 +1,113 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.audit.AuditProvider;
+import io.alpere.crudfop.audit.TemplateAuditProvider;
+import io.alpere.crudfop.service.AopLoggingService;
+import io.alpere.crudfop.service.ArchiveService;
+import io.alpere.crudfop.service.ArchiveServiceImpl;
+import io.alpere.crudfop.service.CrudService;
+import io.alpere.crudfop.service.CrudServiceImpl;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Spring context of benchmarks with embedded H2 database
+ */
+@SuppressWarnings("unchecked")
+@SpringBootApplication
+@EnableAspectJAutoProxy
+@EnableJpaAuditing(auditorAwareRef = "auditProvider")
+public class BenchmarkApplication {
+
+    @Bean
+    public AuditProvider auditProvider() {
+        return new TemplateAuditProvider();
+    }
+
+    @Bean
+    public CrudServiceImpl<BenchmarkEntity> crudService(BenchmarkEntityRepository repository,
+                                                        AuditProvider auditProvider) throws Exception {
+        return new CrudServiceImpl<>(repository, auditProvider, BenchmarkEntity.class);
+    }
+
+    @Bean
+    public ArchiveServiceImpl<BenchmarkEntity> archiveService(BenchmarkEntityRepository repository,
+                                                              AuditProvider auditProvider) throws Exception {
+        return new ArchiveServiceImpl<>(repository, auditProvider, BenchmarkEntity.class);
+    }
+
+    @Bean
+    public CrudServiceImpl<OrderedBenchmarkEntity> orderedCrudService(OrderedBenchmarkEntityRepository repository,
+                                                                      AuditProvider auditProvider) throws Exception {
+        return new CrudServiceImpl<>(repository, auditProvider, OrderedBenchmarkEntity.class);
+    }
+
+    @Bean
+    public AopLoggingService aopLoggingService(AuditProvider auditProvider) {
+        return new AopLoggingService(auditProvider);
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+    }
+
+    static CrudService<BenchmarkEntity> crudService(ConfigurableApplicationContext context) {
+        return context.getBean("crudService", CrudService.class);
+    }
+
+    static ArchiveService<BenchmarkEntity> archiveService(ConfigurableApplicationContext context) {
+        return context.getBean("archiveService", ArchiveService.class);
+    }
+
+    static CrudService<OrderedBenchmarkEntity> orderedCrudService(ConfigurableApplicationContext context) {
+        return context.getBean("orderedCrudService", CrudService.class);
+    }
+
+    /**
+     * Create not saved entities
+     *
+     * @param factory constructor of entity
+     * @param count   count of entities
+     * @return list of entities
+     */
+    static <E extends AbstractBenchmarkEntity> List<E> entities(Supplier<E> factory, int count) {
+        List<E> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            E entity = factory.get();
+            entity.setName("entity-" + i);
+            entity.setAmount(i);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Insert entities with JDBC batches
+     *
+     * @param service service of entity
+     * @param factory constructor of entity
+     * @param count   count of entities
+     * @return ids of inserted entities
+     */
+    static <E extends AbstractBenchmarkEntity> List<UUID> insert(CrudService<E> service, Supplier<E> factory,
+                                                                 int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (E entity : service.saveInBatch(entities(factory, count))) {
+            ids.add(entity.getId());
+        }
+        return ids;
+    }
+}
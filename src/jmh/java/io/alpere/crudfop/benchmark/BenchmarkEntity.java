@@ -0,0 +1,12 @@
+package io.alpere.crudfop.benchmark;
+
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@NoArgsConstructor
+@Entity
+@Table(name = "benchmark_entity")
+public class BenchmarkEntity extends AbstractBenchmarkEntity {
+}
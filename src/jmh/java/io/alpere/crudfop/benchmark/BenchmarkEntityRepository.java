@@ -0,0 +1,6 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.repository.BaseRepository;
+
+public interface BenchmarkEntityRepository extends BaseRepository<BenchmarkEntity> {
+}
@@ -0,0 +1,137 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.service.ArchiveService;
+import io.alpere.crudfop.service.CrudService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of crud and archive services
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrudBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int CHANGE_SIZE = 100;
+    private static final List<Order> ORDERS = Collections.singletonList(Order.asc("name"));
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CrudService<BenchmarkEntity> crudService;
+    private ArchiveService<BenchmarkEntity> archiveService;
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        crudService = BenchmarkApplication.crudService(context);
+        archiveService = BenchmarkApplication.archiveService(context);
+        ids = BenchmarkApplication.insert(crudService, BenchmarkEntity::new, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BenchmarkEntity findOne(StatementCounts counts) {
+        UUID id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        long before = StatementCounter.count();
+        BenchmarkEntity entity = crudService.findOne(id);
+        counts.record(before);
+        return entity;
+    }
+
+    @Benchmark
+    public Page<BenchmarkEntity> pageShallow(StatementCounts counts) {
+        long before = StatementCounter.count();
+        Page<BenchmarkEntity> page = crudService.page(null, ORDERS, 0, PAGE_SIZE);
+        counts.record(before);
+        return page;
+    }
+
+    @Benchmark
+    public Page<BenchmarkEntity> pageDeep(StatementCounts counts) {
+        long before = StatementCounter.count();
+        Page<BenchmarkEntity> page = crudService.page(null, ORDERS, rows / PAGE_SIZE - 1, PAGE_SIZE);
+        counts.record(before);
+        return page;
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> save(StatementCounts counts) {
+        List<BenchmarkEntity> entities = BenchmarkApplication.entities(BenchmarkEntity::new, CHANGE_SIZE);
+        long before = StatementCounter.count();
+        List<BenchmarkEntity> saved = crudService.save(entities);
+        counts.record(before);
+        return saved;
+    }
+
+    @Benchmark
+    public void softDeleteAll(LiveIds live, StatementCounts counts) {
+        long before = StatementCounter.count();
+        crudService.softDeleteAll(live.ids);
+        counts.record(before);
+    }
+
+    @Benchmark
+    public void restoreAll(ArchivedIds archived, StatementCounts counts) {
+        long before = StatementCounter.count();
+        archiveService.restoreAll(archived.ids);
+        counts.record(before);
+    }
+
+    private List<UUID> sample() {
+        int from = ThreadLocalRandom.current().nextInt(ids.size() - CHANGE_SIZE + 1);
+        return ids.subList(from, from + CHANGE_SIZE);
+    }
+
+    /**
+     * Not deleted entities for each call of soft delete
+     */
+    @State(Scope.Thread)
+    public static class LiveIds {
+        private List<UUID> ids;
+
+        @Setup(Level.Invocation)
+        public void setUp(CrudBenchmark benchmark) {
+            ids = benchmark.sample();
+            benchmark.archiveService.restoreAllInBatch(ids);
+        }
+    }
+
+    /**
+     * Deleted to archive entities for each call of restore
+     */
+    @State(Scope.Thread)
+    public static class ArchivedIds {
+        private List<UUID> ids;
+
+        @Setup(Level.Invocation)
+        public void setUp(CrudBenchmark benchmark) {
+            ids = benchmark.sample();
+            benchmark.crudService.softDeleteAllInBatch(ids);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.service.CrudService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live only reads of table with part of rows deleted to archive
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LiveScopeBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final List<Order> ORDERS = Collections.singletonList(Order.asc("name"));
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"0", "50", "90"})
+    public int archivedPercent;
+
+    private ConfigurableApplicationContext context;
+    private CrudService<BenchmarkEntity> crudService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        crudService = BenchmarkApplication.crudService(context);
+        List<UUID> ids = BenchmarkApplication.insert(crudService, BenchmarkEntity::new, rows);
+        crudService.softDeleteAllInBatch(ids.subList(0, rows * archivedPercent / 100));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BenchmarkEntity> page(StatementCounts counts) {
+        long before = StatementCounter.count();
+        Page<BenchmarkEntity> page = crudService.page(null, ORDERS, 0, PAGE_SIZE);
+        counts.record(before);
+        return page;
+    }
+}
@@ -0,0 +1,15 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.id.UuidGeneration;
+import io.alpere.crudfop.id.UuidStrategy;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@NoArgsConstructor
+@Entity
+@Table(name = "ordered_benchmark_entity")
+@UuidGeneration(UuidStrategy.TIME_ORDERED)
+public class OrderedBenchmarkEntity extends AbstractBenchmarkEntity {
+}
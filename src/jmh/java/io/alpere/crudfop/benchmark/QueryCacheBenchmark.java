@@ -0,0 +1,93 @@
+package io.alpere.crudfop.benchmark;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import io.alpere.crudfop.cache.QueryCache;
+import io.alpere.crudfop.service.CrudService;
+import io.alpere.crudfop.service.CrudServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of predicate serialization with and without compiled query cache.
+ * Predicates have the same shape and different values on each call.
+ * Lookups of query cache are reported as {@code hits}, {@code misses} and {@code uncacheable} counters.
+ */
+@SuppressWarnings("unchecked")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryCacheBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int RANGE = 10;
+    private static final List<Order> ORDERS = Collections.singletonList(Order.asc("name"));
+    private static final QBenchmarkEntity ENTITY = QBenchmarkEntity.benchmarkEntity;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    @Param({"1000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CrudService<BenchmarkEntity> crudService;
+    private QueryCache queryCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        crudService = BenchmarkApplication.crudService(context);
+        if (cached) {
+            queryCache = new QueryCache();
+            ((CrudServiceImpl<BenchmarkEntity>) AopProxyUtils.getSingletonTarget(crudService))
+                    .setQueryCache(queryCache);
+        }
+        BenchmarkApplication.insert(crudService, BenchmarkEntity::new, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> findAll(StatementCounts counts, QueryCacheCounts cacheCounts) {
+        BooleanExpression predicate = predicate();
+        long before = StatementCounter.count();
+        List<BenchmarkEntity> entities = crudService.findAll(predicate);
+        counts.record(before);
+        cacheCounts.record(queryCache);
+        return entities;
+    }
+
+    @Benchmark
+    public Page<BenchmarkEntity> page(StatementCounts counts, QueryCacheCounts cacheCounts) {
+        BooleanExpression predicate = predicate();
+        long before = StatementCounter.count();
+        Page<BenchmarkEntity> page = crudService.page(predicate, ORDERS, 0, PAGE_SIZE);
+        counts.record(before);
+        cacheCounts.record(queryCache);
+        return page;
+    }
+
+    private BooleanExpression predicate() {
+        long from = ThreadLocalRandom.current().nextLong(rows - RANGE);
+        return ENTITY.amount.goe(from).and(ENTITY.amount.lt(from + RANGE)).and(ENTITY.name.isNotNull());
+    }
+}
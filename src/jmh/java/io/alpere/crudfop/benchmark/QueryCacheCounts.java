@@ -0,0 +1,50 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.cache.QueryCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results with query cache lookups of measured calls, hit rate is hits / (hits + misses)
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class QueryCacheCounts {
+    public long hits;
+    public long misses;
+    public long uncacheable;
+
+    private long seenHits;
+    private long seenMisses;
+    private long seenUncacheable;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        hits = 0;
+        misses = 0;
+        uncacheable = 0;
+    }
+
+    /**
+     * Record lookups of query cache since previous call
+     *
+     * @param queryCache query cache or null if benchmark runs without cache
+     */
+    void record(QueryCache queryCache) {
+        if (queryCache == null) {
+            return;
+        }
+        long hitCount = queryCache.getHitCount();
+        long missCount = queryCache.getMissCount();
+        long uncacheableCount = queryCache.getUncacheableCount();
+        hits += hitCount - seenHits;
+        misses += missCount - seenMisses;
+        uncacheable += uncacheableCount - seenUncacheable;
+        seenHits = hitCount;
+        seenMisses = missCount;
+        seenUncacheable = uncacheableCount;
+    }
+}
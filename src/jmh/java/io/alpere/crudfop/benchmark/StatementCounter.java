@@ -0,0 +1,22 @@
+package io.alpere.crudfop.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts SQL statements prepared by Hibernate, a JDBC batch is counted once
+ */
+public class StatementCounter implements StatementInspector {
+    private static final LongAdder COUNT = new LongAdder();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.increment();
+        return sql;
+    }
+
+    public static long count() {
+        return COUNT.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package io.alpere.crudfop.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results with SQL statements of measured calls, statements per operation is statements / calls
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class StatementCounts {
+    public long statements;
+    public long calls;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        statements = 0;
+        calls = 0;
+    }
+
+    /**
+     * Record statements of one call
+     *
+     * @param before {@link StatementCounter#count()} before call
+     */
+    void record(long before) {
+        statements += StatementCounter.count() - before;
+        calls++;
+    }
+}
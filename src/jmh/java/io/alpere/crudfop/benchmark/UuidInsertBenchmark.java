@@ -0,0 +1,89 @@
+package io.alpere.crudfop.benchmark;
+
+import io.alpere.crudfop.id.UuidStrategy;
+import io.alpere.crudfop.service.CrudService;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of random and time ordered ids into filled table.
+ * Size of table with primary key index is logged after filling and after measurement, H2 does not report
+ * size of single index, so the difference between strategies comes from pages of primary key index.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UuidInsertBenchmark {
+    private static final int INSERT_SIZE = 1000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    public UuidStrategy strategy;
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private CrudService<BenchmarkEntity> crudService;
+    private CrudService<OrderedBenchmarkEntity> orderedCrudService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        crudService = BenchmarkApplication.crudService(context);
+        orderedCrudService = BenchmarkApplication.orderedCrudService(context);
+        insert();
+        logSize("filled");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        logSize("measured");
+        context.close();
+    }
+
+    @Benchmark
+    public List<UUID> saveInBatch(StatementCounts counts) {
+        long before = StatementCounter.count();
+        List<UUID> ids = insertBatch(INSERT_SIZE);
+        counts.record(before);
+        return ids;
+    }
+
+    private void insert() {
+        for (int inserted = 0; inserted < rows; inserted += INSERT_SIZE) {
+            insertBatch(Math.min(INSERT_SIZE, rows - inserted));
+        }
+    }
+
+    private void logSize(String stage) {
+        String table = strategy == UuidStrategy.TIME_ORDERED ? "ORDERED_BENCHMARK_ENTITY" : "BENCHMARK_ENTITY";
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        Long bytes = jdbcTemplate.queryForObject("select disk_space_used('" + table + "')", Long.class);
+        log.info("Table {} {} with {} ids: {} rows, {} bytes, {} bytes per row.", table, stage, strategy, count,
+                bytes, count == null || count == 0 || bytes == null ? 0 : bytes / count);
+    }
+
+    private List<UUID> insertBatch(int count) {
+        if (strategy == UuidStrategy.TIME_ORDERED) {
+            return BenchmarkApplication.insert(orderedCrudService, OrderedBenchmarkEntity::new, count);
+        }
+        return BenchmarkApplication.insert(crudService, BenchmarkEntity::new, count);
+    }
+}
@@ -0,0 +1,116 @@
+package io.alpere.crudfop.audit;
+
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Snapshot of audit identity bound to current thread or transaction.
+ * It is captured on caller thread and installed on worker threads.
+ */
+@Getter
+public final class AuditContext {
+    private static final ThreadLocal<AuditContext> CURRENT = new ThreadLocal<>();
+
+    private final String user;
+
+    @Nullable
+    private final String auditor;
+
+    public AuditContext(String user, @Nullable String auditor) {
+        this.user = user;
+        this.auditor = auditor;
+    }
+
+    /**
+     * Get audit context of current thread or resolve it with provider
+     *
+     * @param provider audit provider
+     * @return audit context
+     */
+    public static AuditContext capture(AuditProvider provider) {
+        return resolve(provider);
+    }
+
+    /**
+     * Get audit context of current thread or transaction. Otherwise resolve it with provider
+     * and bind it to current transaction, so provider is called once per transaction.
+     *
+     * @param provider audit provider
+     * @return audit context
+     */
+    public static AuditContext resolve(AuditProvider provider) {
+        AuditContext current = CURRENT.get();
+        if (current != null) {
+            return current;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return provider.context();
+        }
+        AuditContext bound = (AuditContext) TransactionSynchronizationManager.getResource(AuditContext.class);
+        if (bound != null) {
+            return bound;
+        }
+        AuditContext context = provider.context();
+        bound = (AuditContext) TransactionSynchronizationManager.getResource(AuditContext.class);
+        if (bound != null) {
+            return bound;
+        }
+        TransactionSynchronizationManager.bindResource(AuditContext.class, context);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditContext.class);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(AuditContext.class, context);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditContext.class);
+            }
+        });
+        return context;
+    }
+
+    /**
+     * Get audit context of current thread
+     *
+     * @return audit context or null
+     */
+    @Nullable
+    public static AuditContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run task with this audit context bound to current thread
+     *
+     * @param task task
+     * @return result of task
+     */
+    public <T> T call(Supplier<T> task) {
+        AuditContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public Optional<String> currentAuditor() {
+        return Optional.ofNullable(auditor);
+    }
+}
@@ -4,4 +4,14 @@ import org.springframework.data.domain.AuditorAware;
 
 public interface AuditProvider extends AuditorAware<String> {
     String user();
+
+    /**
+     * Resolve user and auditor at once. Providers with expensive lookup should override it
+     * to resolve both from one lookup, it is called once per transaction by {@link AuditContext#resolve}.
+     *
+     * @return audit context
+     */
+    default AuditContext context() {
+        return new AuditContext(user(), getCurrentAuditor().orElse(null));
+    }
 }
@@ -0,0 +1,99 @@
+package io.alpere.crudfop.audit;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Audit provider for delegates with expensive lookup, e.g. token service.
+ * Audit contexts are cached by key of caller, e.g. token or principal name, for short time.
+ * Delegate is called directly if key is null.
+ */
+public class CachingAuditProvider implements AuditProvider {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final AuditProvider delegate;
+    private final Supplier<Object> keySupplier;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    public CachingAuditProvider(AuditProvider delegate, Supplier<Object> keySupplier) {
+        this(delegate, keySupplier, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingAuditProvider(AuditProvider delegate, Supplier<Object> keySupplier, Duration ttl,
+                                int maxEntries) {
+        Objects.requireNonNull(ttl, "TTL of audit cache should not be null.");
+        if (ttl.isNegative() || ttl.isZero() || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL and max entries of audit cache should be positive.");
+        }
+        this.delegate = delegate;
+        this.keySupplier = keySupplier;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public AuditContext context() {
+        Object key = keySupplier.get();
+        if (key == null) {
+            return delegate.context();
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdAt < ttlNanos) {
+            return entry.context;
+        }
+        AuditContext context = delegate.context();
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(key, new Entry(context, now));
+        return context;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        return context().currentAuditor();
+    }
+
+    @Override
+    public String user() {
+        return context().getUser();
+    }
+
+    /**
+     * Drop cached audit context of key, e.g. on logout
+     *
+     * @param key key of caller
+     */
+    public void invalidate(@Nullable Object key) {
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Drop all cached audit contexts
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final AuditContext context;
+        private final long createdAt;
+
+        private Entry(AuditContext context, long createdAt) {
+            this.context = context;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.alpere.crudfop.audit;
+
+import java.util.Optional;
+
+/**
+ * Audit provider which prefers audit context of current thread or transaction and falls back to delegate.
+ * Used as auditor aware of Spring auditing, delegate is called once per transaction.
+ */
+public class ContextAuditProvider implements AuditProvider {
+    private final AuditProvider delegate;
+
+    public ContextAuditProvider(AuditProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        return AuditContext.resolve(delegate).currentAuditor();
+    }
+
+    @Override
+    public String user() {
+        return AuditContext.resolve(delegate).getUser();
+    }
+
+    @Override
+    public AuditContext context() {
+        return AuditContext.resolve(delegate);
+    }
+}
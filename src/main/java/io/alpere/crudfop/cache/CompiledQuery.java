@@ -0,0 +1,39 @@
+package io.alpere.crudfop.cache;
+
+import lombok.Getter;
+
+/**
+ * JPQL of predicate shape with positions of parameters of shape constants
+ */
+@Getter
+public class CompiledQuery {
+    /**
+     * Marker of shape which can not be cached
+     */
+    public static final CompiledQuery UNCACHEABLE = new CompiledQuery(null, new int[0], null, new int[0]);
+
+    private final String jpql;
+
+    /**
+     * Positions of select query parameters in order of shape constants
+     */
+    private final int[] positions;
+
+    private final String countJpql;
+
+    /**
+     * Positions of count query parameters in order of shape constants
+     */
+    private final int[] countPositions;
+
+    public CompiledQuery(String jpql, int[] positions, String countJpql, int[] countPositions) {
+        this.jpql = jpql;
+        this.positions = positions;
+        this.countJpql = countJpql;
+        this.countPositions = countPositions;
+    }
+
+    public boolean isCacheable() {
+        return jpql != null;
+    }
+}
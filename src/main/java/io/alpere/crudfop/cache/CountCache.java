@@ -0,0 +1,92 @@
+package io.alpere.crudfop.cache;
+
+import com.querydsl.core.types.Predicate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short living cache of count query results.
+ * Results are kept per entity class and predicate, predicates are compared structurally.
+ * Services drop all results of entity class on every write.
+ */
+public class CountCache {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final Object NO_PREDICATE = new Object();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Object, Entry>> counts = new ConcurrentHashMap<>();
+
+    public CountCache() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CountCache(Duration ttl, int maxEntries) {
+        Objects.requireNonNull(ttl, "TTL of count cache should not be null.");
+        if (ttl.isNegative() || ttl.isZero() || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL and max entries of count cache should be positive.");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get cached count or count with counter
+     *
+     * @param entityClass class of entity
+     * @param predicate   filter of count query, may be null
+     * @param counter     count query
+     * @return count of entities
+     */
+    public long get(Class<?> entityClass, Predicate predicate, LongSupplier counter) {
+        Map<Object, Entry> entries = counts.computeIfAbsent(entityClass, key -> new ConcurrentHashMap<>());
+        Object key = predicate == null ? NO_PREDICATE : predicate;
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdAt < ttlNanos) {
+            return entry.count;
+        }
+        long count = counter.getAsLong();
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(key, new Entry(count, now));
+        return count;
+    }
+
+    /**
+     * Drop cached counts of entity class
+     *
+     * @param entityClass class of entity
+     */
+    public void invalidate(Class<?> entityClass) {
+        Map<Object, Entry> entries = counts.get(entityClass);
+        if (entries != null) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Drop all cached counts
+     */
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long createdAt;
+
+        private Entry(long count, long createdAt) {
+            this.count = count;
+            this.createdAt = createdAt;
+        }
+    }
+}
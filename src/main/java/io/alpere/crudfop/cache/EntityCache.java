@@ -0,0 +1,69 @@
+package io.alpere.crudfop.cache;
+
+import io.alpere.crudfop.model.BaseEntity;
+
+import java.util.UUID;
+
+/**
+ * Read-through cache of entities by entity class and id.
+ * Cache keeps copies of committed entities and returns new detached copy on every hit,
+ * so changes of returned entity are not seen by other callers and are not persisted.
+ */
+public interface EntityCache {
+    /**
+     * Get cached entity
+     *
+     * @param entityClass class of entity
+     * @param id          id of entity
+     * @return detached copy of cached entity or null
+     */
+    <T extends BaseEntity> T get(Class<?> entityClass, UUID id);
+
+    /**
+     * Check cached entity without copy of it and without counting of hit or miss
+     *
+     * @param entityClass class of entity
+     * @param id          id of entity
+     * @return true if entity is cached
+     */
+    boolean contains(Class<?> entityClass, UUID id);
+
+    /**
+     * Cache copy of loaded entity. Entity is ignored if it was evicted after loading started
+     * or if cached entity has newer version. Should be called after commit of loading transaction.
+     *
+     * @param entityClass   class of entity
+     * @param entity        loaded entity
+     * @param loadStartedAt {@link System#nanoTime()} before loading of entity
+     */
+    void put(Class<?> entityClass, BaseEntity entity, long loadStartedAt);
+
+    /**
+     * Evict entity on write
+     *
+     * @param entityClass class of entity
+     * @param id          id of entity
+     */
+    void evict(Class<?> entityClass, UUID id);
+
+    /**
+     * Evict all entities of class
+     *
+     * @param entityClass class of entity
+     */
+    void evictAll(Class<?> entityClass);
+
+    /**
+     * Get count of found entities
+     *
+     * @return count of hits
+     */
+    long getHitCount();
+
+    /**
+     * Get count of not found entities
+     *
+     * @return count of misses
+     */
+    long getMissCount();
+}
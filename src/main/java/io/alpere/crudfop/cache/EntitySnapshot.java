@@ -0,0 +1,139 @@
+package io.alpere.crudfop.cache;
+
+import io.alpere.crudfop.model.BaseEntity;
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable copy of field values of loaded entity.
+ * Every {@link #restore()} creates new detached instance, so callers never share instances.
+ * Arrays and dates are copied on snapshot and on every restore, immutable values are shared.
+ * Entities holding any other value, like associations, collections or embeddables, are not copied,
+ * because such values could be changed through one copy or stay bound to loading session.
+ */
+final class EntitySnapshot {
+    private static final ConcurrentMap<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+    private final Object[] values;
+    private final Instant updatedAt;
+
+    private EntitySnapshot(Class<?> type, Object[] values, Instant updatedAt) {
+        this.type = type;
+        this.values = values;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Copy field values of entity
+     *
+     * @param entity loaded entity
+     * @return snapshot or null if entity holds values which could not be copied
+     */
+    static EntitySnapshot of(BaseEntity entity) {
+        Object target = Hibernate.unproxy(entity);
+        List<Field> fields = fields(target.getClass());
+        Object[] values = new Object[fields.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                Object value = fields.get(i).get(target);
+                if (!isCopyable(value)) {
+                    return null;
+                }
+                values[i] = copy(value);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Error snapshot of " + target.getClass().getSimpleName(), e);
+        }
+        return new EntitySnapshot(target.getClass(), values, entity.getUpdatedAt());
+    }
+
+    /**
+     * Create new detached instance with copied field values
+     *
+     * @return detached entity
+     */
+    @SuppressWarnings("unchecked")
+    <T extends BaseEntity> T restore() {
+        List<Field> fields = fields(type);
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            Object copy = constructor.newInstance();
+            for (int i = 0; i < values.length; i++) {
+                fields.get(i).set(copy, copy(values[i]));
+            }
+            return (T) copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error restore of " + type.getSimpleName(), e);
+        }
+    }
+
+    Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    private static boolean isCopyable(Object value) {
+        if (value == null || value instanceof Date || isImmutable(value)) {
+            return true;
+        }
+        Class<?> componentType = value.getClass().getComponentType();
+        return componentType != null && (componentType.isPrimitive() || isImmutableType(componentType));
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof Enum || isImmutableType(value.getClass())
+                || value instanceof TemporalAccessor && value.getClass().getPackageName().startsWith("java.time");
+    }
+
+    private static boolean isImmutableType(Class<?> type) {
+        return type == String.class || type == Boolean.class || type == Character.class || type == UUID.class
+                || type == BigDecimal.class || type == BigInteger.class || type.isEnum()
+                || Number.class.isAssignableFrom(type) && type.getPackageName().equals("java.lang");
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        return value;
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, key -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = key; current != null && current != Object.class;
+                 current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()
+                            || field.getName().startsWith("$$_hibernate")) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields;
+        });
+    }
+}
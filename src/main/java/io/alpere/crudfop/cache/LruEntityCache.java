@@ -0,0 +1,221 @@
+package io.alpere.crudfop.cache;
+
+import io.alpere.crudfop.model.BaseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded entity cache with least recently used eviction and time to live.
+ * Entities are kept as immutable snapshots and every hit returns new detached copy.
+ * Keys are striped over segments with own lock and own least recently used order, so concurrent hits
+ * of different segments do not wait for each other and eviction order is approximate across segments.
+ * Writes leave tombstones, so entities loaded before the write are not cached afterwards.
+ * Tombstones are kept apart from entities for time to live and do not take capacity of cache.
+ */
+public class LruEntityCache implements EntityCache {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final long ttlNanos;
+    private final Segment[] segments;
+    private final ConcurrentMap<Class<?>, Long> classEvictions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LruEntityCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    public LruEntityCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Create cache with count of segments
+     *
+     * @param maxSize     max count of cached entities
+     * @param ttl         time to live of cached entity
+     * @param concurrency expected count of concurrent readers, rounded up to power of two segments not above max size
+     */
+    public LruEntityCache(int maxSize, Duration ttl, int concurrency) {
+        Objects.requireNonNull(ttl, "TTL of entity cache should not be null.");
+        if (maxSize < 1 || concurrency < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Max size, concurrency and TTL of entity cache should be positive.");
+        }
+        this.ttlNanos = ttl.toNanos();
+        int count = 1;
+        while (count < concurrency && count * 2 <= maxSize) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxSize / count + (i < maxSize % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public <T extends BaseEntity> T get(Class<?> entityClass, UUID id) {
+        EntitySnapshot snapshot = snapshot(new Key(entityClass, id));
+        if (snapshot == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return snapshot.restore();
+    }
+
+    @Override
+    public boolean contains(Class<?> entityClass, UUID id) {
+        return snapshot(new Key(entityClass, id)) != null;
+    }
+
+    @Override
+    public void put(Class<?> entityClass, BaseEntity entity, long loadStartedAt) {
+        Long classEvictedAt = classEvictions.get(entityClass);
+        if (classEvictedAt != null && classEvictedAt - loadStartedAt >= 0) {
+            return;
+        }
+        EntitySnapshot snapshot = EntitySnapshot.of(entity);
+        if (snapshot == null) {
+            return;
+        }
+        Key key = new Key(entityClass, entity.getId());
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Long evictedAt = segment.tombstones.get(key);
+            if (evictedAt != null && evictedAt - loadStartedAt >= 0) {
+                return;
+            }
+            Entry entry = segment.entries.get(key);
+            if (entry != null && isNewer(entry.snapshot, snapshot)) {
+                return;
+            }
+            segment.tombstones.remove(key);
+            segment.entries.put(key, new Entry(snapshot, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void evict(Class<?> entityClass, UUID id) {
+        Key key = new Key(entityClass, id);
+        long now = System.nanoTime();
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+            segment.tombstones.remove(key);
+            segment.tombstones.put(key, now);
+            Iterator<Long> evictedAt = segment.tombstones.values().iterator();
+            while (evictedAt.hasNext() && now - evictedAt.next() >= ttlNanos) {
+                evictedAt.remove();
+            }
+        }
+    }
+
+    @Override
+    public void evictAll(Class<?> entityClass) {
+        classEvictions.put(entityClass, System.nanoTime());
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.keySet().removeIf(key -> key.entityClass == entityClass);
+                segment.tombstones.keySet().removeIf(key -> key.entityClass == entityClass);
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private EntitySnapshot snapshot(Key key) {
+        long now = System.nanoTime();
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.createdAt < ttlNanos) {
+                return entry.snapshot;
+            }
+            segment.entries.remove(key);
+            return null;
+        }
+    }
+
+    private Segment segment(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private boolean isNewer(EntitySnapshot cached, EntitySnapshot loaded) {
+        Instant cachedVersion = cached.getUpdatedAt();
+        Instant loadedVersion = loaded.getUpdatedAt();
+        return cachedVersion != null && loadedVersion != null && cachedVersion.isAfter(loadedVersion);
+    }
+
+    private static final class Segment {
+        private final Map<Key, Entry> entries;
+        private final Map<Key, Long> tombstones = new LinkedHashMap<>();
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> entityClass;
+        private final UUID id;
+
+        private Key(Class<?> entityClass, UUID id) {
+            this.entityClass = entityClass;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return entityClass == key.entityClass && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityClass.hashCode() + id.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        private final EntitySnapshot snapshot;
+        private final long createdAt;
+
+        private Entry(EntitySnapshot snapshot, long createdAt) {
+            this.snapshot = snapshot;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.alpere.crudfop.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded cache of compiled queries by predicate shape with least recently used eviction.
+ * Shape is a predicate with constants replaced by parameters, so calls with the same predicate
+ * structure and different values share one compiled query.
+ */
+public class QueryCache {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Map<String, CompiledQuery> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+
+    public QueryCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public QueryCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size of query cache should be positive.");
+        }
+        this.entries = new LinkedHashMap<String, CompiledQuery>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledQuery> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get cached compiled query or compile it
+     *
+     * @param entityClass class of entity
+     * @param shape       shape of predicate and order
+     * @param compiler    compiler of shape
+     * @return compiled query, {@link CompiledQuery#UNCACHEABLE} if shape can not be cached
+     */
+    public CompiledQuery get(Class<?> entityClass, String shape, Supplier<CompiledQuery> compiler) {
+        String key = entityClass.getName() + '|' + shape;
+        CompiledQuery compiled;
+        synchronized (entries) {
+            compiled = entries.get(key);
+        }
+        if (compiled != null) {
+            (compiled.isCacheable() ? hits : uncacheable).increment();
+            return compiled;
+        }
+        misses.increment();
+        compiled = compiler.get();
+        synchronized (entries) {
+            entries.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Count predicate which can not be cached
+     */
+    public void markUncacheable() {
+        uncacheable.increment();
+    }
+
+    /**
+     * Drop all compiled queries
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getUncacheableCount() {
+        return uncacheable.sum();
+    }
+
+    /**
+     * Share of calls served by cached queries, including calls with uncacheable predicates
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum() + uncacheable.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,22 @@
+package io.alpere.crudfop.change;
+
+import io.alpere.crudfop.model.BaseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Listener of entity changes made by services. It is called in transaction of change,
+ * so its writes are committed or rolled back with the change.
+ */
+public interface ChangeListener {
+    /**
+     * Entity was changed
+     *
+     * @param type        type of change
+     * @param entityClass class of entity
+     * @param id          id of entity
+     * @param entity      changed entity, null if entity was changed by bulk statement
+     */
+    void onChange(ChangeType type, Class<?> entityClass, UUID id, @Nullable BaseEntity entity);
+}
@@ -0,0 +1,28 @@
+package io.alpere.crudfop.change;
+
+public enum ChangeType {
+    /**
+     * Entity created or updated
+     */
+    SAVED,
+
+    /**
+     * Entity deleted to archive
+     */
+    SOFT_DELETED,
+
+    /**
+     * Entity restored from archive
+     */
+    RESTORED,
+
+    /**
+     * Entity deleted
+     */
+    DELETED,
+
+    /**
+     * Archived entity deleted after retention
+     */
+    PURGED
+}
@@ -0,0 +1,28 @@
+package io.alpere.crudfop.change;
+
+import io.alpere.crudfop.model.BaseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Calls listeners one by one in order of registration
+ */
+public class CompositeChangeListener implements ChangeListener {
+    private final List<ChangeListener> listeners;
+
+    public CompositeChangeListener(ChangeListener... listeners) {
+        this.listeners = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(listeners)));
+    }
+
+    @Override
+    public void onChange(ChangeType type, Class<?> entityClass, UUID id, @Nullable BaseEntity entity) {
+        for (ChangeListener listener : listeners) {
+            listener.onChange(type, entityClass, id, entity);
+        }
+    }
+}
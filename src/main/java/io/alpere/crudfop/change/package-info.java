@@ -0,0 +1,4 @@
+@NonNullApi
+package io.alpere.crudfop.change;
+
+import org.springframework.lang.NonNullApi;
@@ -0,0 +1,68 @@
+package io.alpere.crudfop.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Scope of unit of work, e.g. web request, bound to current thread.
+ * After the first write in scope all following reads of the scope are routed to primary.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean written;
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Run task in new read your writes scope
+     *
+     * @param task task
+     * @return result of task
+     */
+    public static <T> T call(Supplier<T> task) {
+        ReadYourWrites previous = CURRENT.get();
+        CURRENT.set(new ReadYourWrites());
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Run task in new read your writes scope
+     *
+     * @param task task
+     */
+    public static void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Mark current scope as written, no op outside of scope
+     */
+    public static void markWritten() {
+        ReadYourWrites current = CURRENT.get();
+        if (current != null) {
+            current.written = true;
+        }
+    }
+
+    /**
+     * Reads of current scope should go to primary?
+     *
+     * @return true if current scope has written
+     */
+    public static boolean isWritten() {
+        ReadYourWrites current = CURRENT.get();
+        return current != null && current.written;
+    }
+}
@@ -0,0 +1,52 @@
+package io.alpere.crudfop.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * Routes connections of read only transactions to replica and all other connections to primary.
+ * Reads inside of read write transaction and reads after read write transaction in {@link ReadYourWrites} scope
+ * use primary.
+ * Routing decision is made on connection fetch, so data source should be wrapped with
+ * {@link LazyConnectionDataSourceProxy}, use {@link #create(DataSource, DataSource)}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        Map<Object, Object> dataSources = new HashMap<>();
+        dataSources.put(PRIMARY, primary);
+        dataSources.put(REPLICA, replica);
+        setTargetDataSources(dataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Create routing data source which fetches connection on first statement
+     *
+     * @param primary primary data source
+     * @param replica replica data source
+     * @return data source for entity manager factory
+     */
+    public static DataSource create(DataSource primary, DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isWritten()) {
+            return REPLICA;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWrites.markWritten();
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package io.alpere.crudfop.datasource;
+
+import org.springframework.lang.NonNullApi;
@@ -0,0 +1,67 @@
+package io.alpere.crudfop.history;
+
+import io.alpere.crudfop.change.ChangeType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Append only record of entity change with snapshot of entity after change.
+ * Difference between versions is the difference of snapshots of consecutive records.
+ * Entity of the library, its package should be added to entity scan of application.
+ * DDL of table {@code crudfop_history} is given in README.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@Entity
+@Table(name = "crudfop_history")
+public class HistoryRecord {
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "entity_type", nullable = false, updatable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, updatable = false)
+    private UUID entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false)
+    private ChangeType changeType;
+
+    @Column(name = "changed_by", nullable = false, updatable = false)
+    private String changedBy;
+
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private Instant changedAt;
+
+    /**
+     * Properties of entity after change as JSON object, null if entity was changed by bulk statement
+     * or its properties could not be serialized
+     */
+    @Column(name = "snapshot", columnDefinition = "text", updatable = false)
+    private String snapshot;
+
+    public HistoryRecord(UUID id, String entityType, UUID entityId, ChangeType changeType, String changedBy,
+                         Instant changedAt, @Nullable String snapshot) {
+        this.id = id;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.changedBy = changedBy;
+        this.changedAt = changedAt;
+        this.snapshot = snapshot;
+    }
+}
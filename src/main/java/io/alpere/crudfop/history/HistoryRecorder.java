@@ -0,0 +1,399 @@
+package io.alpere.crudfop.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.alpere.crudfop.audit.AuditContext;
+import io.alpere.crudfop.audit.AuditProvider;
+import io.alpere.crudfop.change.ChangeListener;
+import io.alpere.crudfop.change.ChangeType;
+import io.alpere.crudfop.id.TimeOrderedUuids;
+import io.alpere.crudfop.metrics.MetricsRegistry;
+import io.alpere.crudfop.model.BaseEntity;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.persistence.EntityManager;
+
+/**
+ * Asynchronous history of entity changes. Changes of transaction are buffered in one resource bound to transaction.
+ * After commit, when persistence context is flushed and audit fields and version are set, listener copies shallow
+ * entity properties and puts them to bounded lock free queue. Writer thread formats them as JSON and inserts
+ * records in JDBC batches. Records are dropped when queue is full, so history may have gaps under overload.
+ */
+@Slf4j
+public class HistoryRecorder implements ChangeListener, AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 100000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(50);
+
+    private static final String METRICS_NAME = HistoryRecord.class.getSimpleName();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditProvider auditorAware;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<Change> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger maxQueueSize = new AtomicInteger();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ConcurrentMap<Class<?>, List<Field>> fields = new ConcurrentHashMap<>();
+    @Getter
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    /**
+     * Registry of enqueue and write metrics: dropped records are errors of enqueue, queue peak is max batch items
+     * of enqueue, failed records are batch items of failed writes
+     */
+    @Setter
+    private MetricsRegistry metricsRegistry;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public HistoryRecorder(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                           AuditProvider auditorAware) {
+        this(entityManager, transactionManager, auditorAware, DEFAULT_CAPACITY);
+    }
+
+    public HistoryRecorder(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                           AuditProvider auditorAware, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity of history queue should be positive.");
+        }
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditorAware = auditorAware;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onChange(ChangeType type, Class<?> entityClass, UUID id, @Nullable BaseEntity entity) {
+        String user = AuditContext.resolve(auditorAware).getUser();
+        Change change = new Change(entityClass.getSimpleName(), id, type, user.isEmpty() ? "unknown user" : user,
+                Instant.now(), entity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(change);
+            return;
+        }
+        changes().add(change);
+    }
+
+    /**
+     * Start writer thread
+     *
+     * @param pollInterval pause of writer when queue is empty
+     */
+    public synchronized void start(Duration pollInterval) {
+        if (running) {
+            return;
+        }
+        running = true;
+        long pollNanos = pollInterval.toNanos();
+        writer = new Thread(() -> {
+            while (running) {
+                if (flush() == 0) {
+                    LockSupport.parkNanos(pollNanos);
+                }
+            }
+        }, "crudfop-history");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Start writer thread with default poll interval
+     */
+    public void start() {
+        start(DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * Write queued records in batches
+     *
+     * @return count of written records
+     */
+    public int flush() {
+        int total = 0;
+        List<Change> batch;
+        while (!(batch = poll()).isEmpty()) {
+            total += write(batch);
+        }
+        return total;
+    }
+
+    /**
+     * Stop writer thread and write remaining records
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = writer;
+            writer = null;
+        }
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Set max count of records inserted in one transaction
+     *
+     * @param batchSize max count of records
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * Max observed queue size, close to capacity means writer does not keep up
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize.get();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Get changes of current transaction, the first change binds them and registers one synchronization
+     */
+    @SuppressWarnings("unchecked")
+    private List<Change> changes() {
+        List<Change> bound = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        List<Change> changes = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(HistoryRecorder.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(HistoryRecorder.this, changes);
+            }
+
+            @Override
+            public void afterCommit() {
+                changes.forEach(HistoryRecorder.this::enqueue);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(HistoryRecorder.this);
+            }
+        });
+        return changes;
+    }
+
+    private void enqueue(Change change) {
+        int size = queueSize.incrementAndGet();
+        if (size > capacity) {
+            queueSize.decrementAndGet();
+            dropped.increment();
+            record("enqueue", 0, capacity, 0, true);
+            return;
+        }
+        maxQueueSize.accumulateAndGet(size, Math::max);
+        queue.offer(change.capture());
+        enqueued.increment();
+        record("enqueue", 0, size, 1, false);
+    }
+
+    private List<Change> poll() {
+        List<Change> batch = new ArrayList<>();
+        Change change;
+        while (batch.size() < batchSize && (change = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            batch.add(change);
+        }
+        return batch;
+    }
+
+    private int write(List<Change> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            List<HistoryRecord> records = new ArrayList<>(batch.size());
+            batch.forEach(change -> records.add(change.toRecord()));
+            transactionTemplate.executeWithoutResult(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                Integer jdbcBatchSize = session.getJdbcBatchSize();
+                session.setJdbcBatchSize(batchSize);
+                try {
+                    records.forEach(entityManager::persist);
+                    entityManager.flush();
+                    entityManager.clear();
+                } finally {
+                    session.setJdbcBatchSize(jdbcBatchSize);
+                }
+            });
+            written.add(batch.size());
+            record("write", System.nanoTime() - startedAt, batch.size(), batch.size(), false);
+            return batch.size();
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            record("write", System.nanoTime() - startedAt, batch.size(), 0, true);
+            log.warn("Write of {} history records failed.", batch.size(), e);
+            return 0;
+        }
+    }
+
+    private void record(String operation, long nanos, int batchSize, int resultSize, boolean failed) {
+        if (metricsRegistry != null) {
+            metricsRegistry.operation(METRICS_NAME, operation).record(nanos, batchSize, resultSize, failed);
+        }
+    }
+
+    /**
+     * Copy properties of entity, associations are replaced by ids and collections are skipped
+     * to not load lazy associations
+     */
+    private Map<String, Object> properties(BaseEntity entity) {
+        Object target = Hibernate.unproxy(entity);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (Field field : fields.computeIfAbsent(target.getClass(), HistoryRecorder::fields)) {
+            Object value;
+            try {
+                value = field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Snapshot of " + target.getClass().getSimpleName() + " failed.", e);
+            }
+            if (value instanceof Collection || value instanceof Map) {
+                continue;
+            }
+            properties.put(field.getName(), value instanceof BaseEntity ? ((BaseEntity) value).getId() : value);
+        }
+        return properties;
+    }
+
+    private static List<Field> fields(Class<?> entityClass) {
+        List<Field> result = new ArrayList<>();
+        for (Class<?> current = entityClass; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    field.setAccessible(true);
+                    result.add(field);
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Change of entity waiting for commit and then for writer thread
+     */
+    private final class Change {
+        private final String entityType;
+        private final UUID entityId;
+        private final ChangeType changeType;
+        private final String changedBy;
+        private final Instant changedAt;
+        @Nullable
+        private BaseEntity entity;
+        @Nullable
+        private Map<String, Object> properties;
+        @Nullable
+        private UUID id;
+
+        private Change(String entityType, UUID entityId, ChangeType changeType, String changedBy, Instant changedAt,
+                       @Nullable BaseEntity entity) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.changeType = changeType;
+            this.changedBy = changedBy;
+            this.changedAt = changedAt;
+            this.entity = entity;
+        }
+
+        /**
+         * Copy properties of committed entity and release it
+         */
+        private Change capture() {
+            id = TimeOrderedUuids.next();
+            if (entity != null) {
+                properties = properties(entity);
+                entity = null;
+            }
+            return this;
+        }
+
+        /**
+         * Format properties as JSON on writer thread
+         */
+        private HistoryRecord toRecord() {
+            String snapshot = null;
+            if (properties != null) {
+                try {
+                    snapshot = OBJECT_MAPPER.writeValueAsString(properties);
+                } catch (JsonProcessingException e) {
+                    log.warn("Snapshot of {} with id {} failed.", entityType, entityId, e);
+                }
+            }
+            return new HistoryRecord(id, entityType, entityId, changeType, changedBy, changedAt, snapshot);
+        }
+    }
+}
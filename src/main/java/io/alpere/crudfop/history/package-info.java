@@ -0,0 +1,4 @@
+@NonNullApi
+package io.alpere.crudfop.history;
+
+import org.springframework.lang.NonNullApi;
@@ -0,0 +1,47 @@
+package io.alpere.crudfop.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of UUID version 7: 48 bits of unix time in milliseconds, 12 bits of counter
+ * and 62 random bits. Counter keeps ids monotonic within a millisecond, on overflow
+ * it borrows the next millisecond.
+ */
+public final class TimeOrderedUuids {
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    /**
+     * Last used milliseconds shifted left by counter bits plus counter
+     */
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private TimeOrderedUuids() {
+    }
+
+    /**
+     * Generate next time ordered UUID
+     *
+     * @return UUID version 7
+     */
+    public static UUID next() {
+        long timestamp = System.currentTimeMillis() << COUNTER_BITS;
+        long previous;
+        long current;
+        do {
+            previous = STATE.get();
+            current = Math.max(previous + 1, timestamp);
+        } while (!STATE.compareAndSet(previous, current));
+
+        long millis = current >>> COUNTER_BITS;
+        long counter = current & COUNTER_MASK;
+        long mostSigBits = (millis << 16) | VERSION | counter;
+        long leastSigBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,48 @@
+package io.alpere.crudfop.id;
+
+import io.alpere.crudfop.model.BaseEntity;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate generator of entity ids. Strategy is selected by {@link UuidGeneration} of entity class.
+ * Ids assigned on client are kept.
+ */
+public class UuidIdentifierGenerator implements IdentifierGenerator {
+    public static final String NAME = "crudfop-uuid";
+
+    private static final Map<Class<?>, UuidStrategy> STRATEGIES = new ConcurrentHashMap<>();
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof BaseEntity && ((BaseEntity) object).getId() != null) {
+            return ((BaseEntity) object).getId();
+        }
+        return generate(object.getClass());
+    }
+
+    /**
+     * Generate id for entity class
+     *
+     * @param entityClass class of entity
+     * @return new id
+     */
+    public static UUID generate(Class<?> entityClass) {
+        if (strategy(entityClass) == UuidStrategy.TIME_ORDERED) {
+            return TimeOrderedUuids.next();
+        }
+        return UUID.randomUUID();
+    }
+
+    private static UuidStrategy strategy(Class<?> entityClass) {
+        return STRATEGIES.computeIfAbsent(entityClass, key -> {
+            UuidGeneration generation = key.getAnnotation(UuidGeneration.class);
+            return generation == null ? UuidStrategy.RANDOM : generation.value();
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package io.alpere.crudfop.id;
+
+public enum UuidStrategy {
+    /**
+     * Random UUID version 4
+     */
+    RANDOM,
+
+    /**
+     * Time ordered UUID version 7, monotonic within one JVM
+     */
+    TIME_ORDERED
+}
@@ -0,0 +1,39 @@
+package io.alpere.crudfop.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    // keyed by entity name and operation, so recording does not build a key per call
+    private final ConcurrentMap<String, ConcurrentMap<String, OperationMetrics>> operations = new ConcurrentHashMap<>();
+
+    @Override
+    public OperationMetrics operation(String entityName, String operation) {
+        ConcurrentMap<String, OperationMetrics> entityOperations = operations.get(entityName);
+        if (entityOperations == null) {
+            entityOperations = operations.computeIfAbsent(entityName, key -> new ConcurrentHashMap<>());
+        }
+        OperationMetrics metrics = entityOperations.get(operation);
+        if (metrics == null) {
+            metrics = entityOperations.computeIfAbsent(operation, key -> new OperationMetrics(entityName, operation));
+        }
+        return metrics;
+    }
+
+    @Override
+    public Collection<OperationMetrics> getOperations() {
+        return operations.values().stream()
+                .flatMap(entityOperations -> entityOperations.values().stream())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Drop all recorded metrics
+     */
+    public void clear() {
+        operations.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package io.alpere.crudfop.metrics;
+
+import java.util.Collection;
+
+public interface MetricsRegistry {
+    /**
+     * Get or create metrics of operation
+     *
+     * @param entityName simple name of entity class
+     * @param operation  name of service method
+     * @return metrics of operation
+     */
+    OperationMetrics operation(String entityName, String operation);
+
+    /**
+     * Get metrics of all recorded operations
+     *
+     * @return list of operation metrics
+     */
+    Collection<OperationMetrics> getOperations();
+}
@@ -0,0 +1,130 @@
+package io.alpere.crudfop.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free statistics of one operation of one entity.
+ * Latencies are kept in power of two buckets of nanoseconds.
+ */
+public class OperationMetrics {
+    private static final int BUCKETS = 64;
+
+    @Getter
+    private final String entityName;
+
+    @Getter
+    private final String operation;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder batchItems = new LongAdder();
+    private final LongAccumulator maxBatchItems = new LongAccumulator(Math::max, 0);
+    private final LongAdder resultItems = new LongAdder();
+    private final LongAdder[] latencies = new LongAdder[BUCKETS];
+
+    public OperationMetrics(String entityName, String operation) {
+        this.entityName = entityName;
+        this.operation = operation;
+        for (int i = 0; i < BUCKETS; i++) {
+            latencies[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one call of operation
+     *
+     * @param nanos      duration of call
+     * @param batchSize  count of entities or ids passed to operation in batch, 0 for single entity or id
+     * @param resultSize count of entities or ids returned by operation
+     * @param failed     operation threw exception
+     */
+    public void record(long nanos, int batchSize, int resultSize, boolean failed) {
+        long duration = Math.max(nanos, 0);
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+        batchItems.add(batchSize);
+        maxBatchItems.accumulate(batchSize);
+        resultItems.add(resultSize);
+        latencies[bucket(duration)].increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getBatchItems() {
+        return batchItems.sum();
+    }
+
+    /**
+     * Max count of entities or ids passed to one call
+     */
+    public long getMaxBatchItems() {
+        return maxBatchItems.get();
+    }
+
+    public long getResultItems() {
+        return resultItems.sum();
+    }
+
+    public double getMeanNanos() {
+        long calls = getCount();
+        return calls == 0 ? 0 : (double) getTotalNanos() / calls;
+    }
+
+    /**
+     * Get upper bound of latency bucket containing percentile
+     *
+     * @param percentile percentile from 0 to 1
+     * @return latency in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencies[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 1) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    private static int bucket(long nanos) {
+        return nanos == 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos) - 1;
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+}
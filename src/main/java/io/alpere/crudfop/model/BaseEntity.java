@@ -1,9 +1,11 @@
 package io.alpere.crudfop.model;
 
+import io.alpere.crudfop.id.UuidIdentifierGenerator;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -15,7 +17,6 @@ import java.util.UUID;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.Version;
@@ -28,7 +29,8 @@ import javax.persistence.Version;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = UuidIdentifierGenerator.NAME)
+    @GenericGenerator(name = UuidIdentifierGenerator.NAME, strategy = "io.alpere.crudfop.id.UuidIdentifierGenerator")
     @Column(name = "id", nullable = false, updatable = false)
     protected UUID id;
 
@@ -0,0 +1,28 @@
+package io.alpere.crudfop.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PreUpdate;
+
+/**
+ * Base entity with monotonic long version. Version is incremented on each update, including bulk soft delete,
+ * restore and batched versioned updates of services, and used by batched versioned updates instead of update time,
+ * which may be equal for updates in the same clock tick. Bulk updates of repository do not increment it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@MappedSuperclass
+public abstract class LongVersionedEntity extends BaseEntity {
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @PreUpdate
+    protected void incrementVersion() {
+        version++;
+    }
+}
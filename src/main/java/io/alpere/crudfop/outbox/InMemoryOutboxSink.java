@@ -0,0 +1,25 @@
+package io.alpere.crudfop.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sink which keeps published records in memory, for tests
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+    private final ConcurrentLinkedQueue<OutboxRecord> records = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(List<OutboxRecord> records) {
+        this.records.addAll(records);
+    }
+
+    public List<OutboxRecord> getRecords() {
+        return new ArrayList<>(records);
+    }
+
+    public void clear() {
+        records.clear();
+    }
+}
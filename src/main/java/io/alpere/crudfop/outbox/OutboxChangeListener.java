@@ -0,0 +1,33 @@
+package io.alpere.crudfop.outbox;
+
+import io.alpere.crudfop.change.ChangeListener;
+import io.alpere.crudfop.change.ChangeType;
+import io.alpere.crudfop.id.TimeOrderedUuids;
+import io.alpere.crudfop.model.BaseEntity;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Writes outbox record of each change in transaction of change
+ */
+public class OutboxChangeListener implements ChangeListener {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxChangeListener() {
+    }
+
+    public OutboxChangeListener(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void onChange(ChangeType type, Class<?> entityClass, UUID id, @Nullable BaseEntity entity) {
+        entityManager.persist(new OutboxRecord(TimeOrderedUuids.next(), entityClass.getSimpleName(), id, type,
+                Instant.now()));
+    }
+}
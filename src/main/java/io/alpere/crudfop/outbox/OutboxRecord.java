@@ -0,0 +1,53 @@
+package io.alpere.crudfop.outbox;
+
+import io.alpere.crudfop.change.ChangeType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Compact record of entity change. Ids are time ordered, so records are read in order of creation
+ * and inserted at the end of primary key index.
+ * Entity of the library, its package should be added to entity scan of application.
+ * DDL of table {@code crudfop_outbox} is given in README.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@Entity
+@Table(name = "crudfop_outbox")
+public class OutboxRecord {
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "entity_type", nullable = false, updatable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, updatable = false)
+    private UUID entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false)
+    private ChangeType changeType;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public OutboxRecord(UUID id, String entityType, UUID entityId, ChangeType changeType, Instant createdAt) {
+        this.id = id;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,135 @@
+package io.alpere.crudfop.outbox;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+
+/**
+ * Publishes outbox records to sink in batches ordered by id. Each batch is read, published and deleted
+ * in one transaction, batch is published again if transaction fails, so delivery is at least once.
+ * Rows are locked with skip locked, so several relays share records without waiting.
+ */
+@Slf4j
+public class OutboxRelay {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String LOCK_TIMEOUT = "javax.persistence.lock.timeout";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    @Getter
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public OutboxRelay(EntityManager entityManager, PlatformTransactionManager transactionManager, OutboxSink sink) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = Objects.requireNonNull(sink, "Outbox sink should not be null.");
+    }
+
+    /**
+     * Publish records committed before the call. Records committed during the call with lower ids
+     * are published by the next call.
+     *
+     * @return count of published records
+     */
+    public long relay() {
+        long total = 0;
+        UUID lastId = null;
+        List<UUID> ids;
+        do {
+            UUID afterId = lastId;
+            ids = transactionTemplate.execute(status -> relayBatch(afterId));
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            total += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize && !Thread.currentThread().isInterrupted());
+        if (total > 0) {
+            log.debug("Published {} outbox records.", total);
+        }
+        return total;
+    }
+
+    /**
+     * Periodically publish outbox records
+     *
+     * @param scheduler scheduler
+     * @param interval  interval between relays
+     * @return scheduled task
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration interval) {
+        long millis = interval.toMillis();
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (RuntimeException e) {
+                log.warn("Relay of outbox records failed.", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set max count of records published at once
+     *
+     * @param batchSize max count of records
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    private List<UUID> relayBatch(@Nullable UUID afterId) {
+        String where = afterId == null ? "" : " where r.id > :afterId";
+        TypedQuery<OutboxRecord> query = entityManager.createQuery(
+                "select r from OutboxRecord r" + where + " order by r.id", OutboxRecord.class);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        List<OutboxRecord> records = query.setMaxResults(batchSize)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultList();
+        if (records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        sink.publish(records);
+        List<UUID> ids = records.stream().map(OutboxRecord::getId).collect(Collectors.toList());
+        entityManager.createQuery("delete from OutboxRecord r where r.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        published.add(ids.size());
+        batches.increment();
+        return ids;
+    }
+}
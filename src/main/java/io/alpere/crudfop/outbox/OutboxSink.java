@@ -0,0 +1,16 @@
+package io.alpere.crudfop.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of outbox records, e.g. message broker
+ */
+public interface OutboxSink {
+    /**
+     * Publish batch of records. Records are deleted from outbox only if publish returns normally,
+     * otherwise the batch is published again, so sink should accept duplicates.
+     *
+     * @param records records ordered by id
+     */
+    void publish(List<OutboxRecord> records);
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package io.alpere.crudfop.outbox;
+
+import org.springframework.lang.NonNullApi;
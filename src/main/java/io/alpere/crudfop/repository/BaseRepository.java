@@ -3,10 +3,90 @@ package io.alpere.crudfop.repository;
 
 import io.alpere.crudfop.model.BaseEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+@NoRepositoryBean
 public interface BaseRepository<Entity extends BaseEntity>
         extends JpaRepository<Entity, UUID>, QuerydslPredicateExecutor<Entity> {
+
+    /**
+     * Get ids of existing entities without loading entities
+     *
+     * @param ids list of entities ids
+     * @return ids of entities which exist
+     */
+    @Query("select e.id from #{#entityName} e where e.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Get ids of not deleted entities
+     *
+     * @param ids list of entities ids
+     * @return ids of entities which exist and are not deleted to archive
+     */
+    @Query("select e.id from #{#entityName} e where e.id in :ids and e.deletedAt is null")
+    List<UUID> findLiveIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Delete entities to archive with one update statement
+     * Version of {@code LongVersionedEntity} is not incremented, services increment it in their bulk updates.
+     *
+     * @param ids       list of entities ids
+     * @param deletedAt time of deletion
+     * @param deletedBy user who deletes entities
+     * @return count of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update #{#entityName} e set e.deletedAt = :deletedAt, e.deletedBy = :deletedBy, "
+            + "e.updatedAt = :deletedAt, e.updatedBy = :deletedBy "
+            + "where e.id in :ids and e.deletedAt is null")
+    int softDeleteAllById(@Param("ids") Collection<UUID> ids,
+                          @Param("deletedAt") Instant deletedAt,
+                          @Param("deletedBy") String deletedBy);
+
+    /**
+     * Get ids of entities deleted to archive
+     *
+     * @param ids list of entities ids
+     * @return ids of entities which exist and are deleted to archive
+     */
+    @Query("select e.id from #{#entityName} e where e.id in :ids and e.deletedAt is not null")
+    List<UUID> findArchivedIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Restore entities from archive with one update statement
+     * Version of {@code LongVersionedEntity} is not incremented, services increment it in their bulk updates.
+     *
+     * @param ids       list of archived entities ids
+     * @param updatedAt time of restore
+     * @param updatedBy user who restores entities
+     * @return count of updated rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update #{#entityName} e set e.deletedAt = null, e.deletedBy = null, "
+            + "e.updatedAt = :updatedAt, e.updatedBy = :updatedBy "
+            + "where e.id in :ids and e.deletedAt is not null")
+    int restoreAllById(@Param("ids") Collection<UUID> ids,
+                       @Param("updatedAt") Instant updatedAt,
+                       @Param("updatedBy") String updatedBy);
+
+    /**
+     * Delete archived entities with one delete statement.
+     * Cascades and entity callbacks are not applied.
+     *
+     * @param ids list of archived entities ids
+     * @return count of deleted rows
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from #{#entityName} e where e.id in :ids and e.deletedAt is not null")
+    int deleteArchivedById(@Param("ids") Collection<UUID> ids);
 }
@@ -1,5 +1,6 @@
 package io.alpere.crudfop.service;
 
+import io.alpere.crudfop.audit.AuditContext;
 import io.alpere.crudfop.audit.AuditProvider;
 import io.alpere.crudfop.model.BaseEntity;
 import lombok.RequiredArgsConstructor;
@@ -9,11 +10,12 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @SuppressWarnings({"rawtypes", "unchecked"})
 @Slf4j
@@ -22,6 +24,11 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 public class AopLoggingService {
 
+    /**
+     * Max count of ids written to one log line
+     */
+    static final int MAX_LOGGED_IDS = 20;
+
     private final AuditProvider auditorAware;
 
     /**
@@ -31,10 +38,14 @@ public class AopLoggingService {
      * @param entities  list of entities
      */
     @AfterReturning(
-            pointcut = "execution(* io.alpere.crudfop.service.CrudService.findAll(..))",
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.findAll(..))"
+                    + " || execution(* io.alpere.crudfop.service.CrudService.findAllById(..))",
             returning = "entities"
     )
     public void onAfterFindAll(final JoinPoint joinPoint, final List entities) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Find all entities of {}. Total count of entities is {}. User: {}",
                 entityName(joinPoint), entities.size(), user());
 
@@ -51,10 +62,49 @@ public class AopLoggingService {
             returning = "page"
     )
     public void onAfterFindAll(final JoinPoint joinPoint, final Page page) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Page og entities of {}. Page: {}. Total entities: {}. User: {}",
                 entityName(joinPoint), page.getNumber(), page.getTotalElements(), user());
     }
 
+    /**
+     * Validator/logger for slice methods
+     *
+     * @param joinPoint Join point object
+     * @param slice     slice of entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.slice(..))",
+            returning = "slice"
+    )
+    public void onAfterSlice(final JoinPoint joinPoint, final Slice slice) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Slice of entities of {}. Page: {}. Has next: {}. User: {}",
+                entityName(joinPoint), slice.getNumber(), slice.hasNext(), user());
+    }
+
+    /**
+     * Validator/logger for keyset page methods
+     *
+     * @param joinPoint Join point object
+     * @param page      keyset page of entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.keysetPage(..))",
+            returning = "page"
+    )
+    public void onAfterKeysetPage(final JoinPoint joinPoint, final KeysetPage page) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Keyset page of entities of {}. Entities on page: {}. Has next: {}. User: {}",
+                entityName(joinPoint), page.getContent().size(), page.hasNext(), user());
+    }
+
     /**
      * Validator/logger for getting one entity
      *
@@ -66,6 +116,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterFindOne(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Find one entity {} with id {}. User: {}",
                 entityName(joinPoint), entity.getId(), user());
     }
@@ -79,10 +132,29 @@ public class AopLoggingService {
             pointcut = "execution(* io.alpere.crudfop.service.CrudService.save(..))"
     )
     public void onAfterSave(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Save/update entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertArguments(joinPoint), user());
     }
 
+    /**
+     * Validator/logger for batch save/update entities
+     *
+     * @param joinPoint Join point object
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.saveInBatch(..))"
+    )
+    public void onAfterSaveInBatch(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Save/update in batch entities {} with IDs {}. User: {}",
+                entityName(joinPoint), convertArguments(joinPoint), user());
+    }
+
     /**
      * Validator/logger for delete entity to archive
      *
@@ -93,6 +165,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterSoftDelete(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete to archive entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
@@ -101,10 +176,50 @@ public class AopLoggingService {
             pointcut = "execution(* io.alpere.crudfop.service.CrudService.softDeleteAll(..))"
     )
     public void onAfterSoftDeleteAll(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete to archive entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
 
+    /**
+     * Validator/logger for batch versioned update of entities
+     *
+     * @param joinPoint Join point object
+     * @param result    ids of updated, conflicted and unknown entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.updateInBatch(..))",
+            returning = "result"
+    )
+    public void onAfterUpdateInBatch(final JoinPoint joinPoint, final UpdateResult result) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Update in batch entities {} with IDs {}. Conflicted IDs {}. Unknown IDs {}. User: {}",
+                entityName(joinPoint), convertIds(result.getUpdated()), convertIds(result.getConflicted()),
+                convertIds(result.getUnknown()), user());
+    }
+
+    /**
+     * Validator/logger for batch delete entities to archive
+     *
+     * @param joinPoint Join point object
+     * @param result    ids of deleted and not found entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.CrudService.softDeleteAllInBatch(..))",
+            returning = "result"
+    )
+    public void onAfterSoftDeleteAllInBatch(final JoinPoint joinPoint, final BatchResult result) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Delete to archive in batch entities {} with IDs {}. Not found IDs {}. User: {}",
+                entityName(joinPoint), convertIds(result.getAffected()), convertIds(result.getMissing()), user());
+    }
+
     /**
      * Validator/logger for delete entity to archive
      *
@@ -115,6 +230,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterDelete(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
@@ -123,6 +241,9 @@ public class AopLoggingService {
             pointcut = "execution(* io.alpere.crudfop.service.CrudService.deleteAll(..))"
     )
     public void onAfterDeleteAll(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
@@ -138,6 +259,9 @@ public class AopLoggingService {
             returning = "entities"
     )
     public void onAfterArchivedFindAll(final JoinPoint joinPoint, final List entities) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Find all archived entities of {}. Total count of entities is {}. User: {}",
                 entityName(joinPoint), entities.size(), user());
 
@@ -154,6 +278,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterArchivedFindOne(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Find one archived entity {} with id {}. User: {}",
                 entityName(joinPoint), entity.getId(), user());
     }
@@ -168,6 +295,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterRestore(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Restore from archive entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
@@ -176,10 +306,31 @@ public class AopLoggingService {
             pointcut = "execution(* io.alpere.crudfop.service.ArchiveService.restoreAll(..))"
     )
     public void onAfterRestoreAll(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Restore from archive entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
 
+    /**
+     * Validator/logger for batch restore entities from archive
+     *
+     * @param joinPoint Join point object
+     * @param result    ids of restored and not found entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.ArchiveService.restoreAllInBatch(..))",
+            returning = "result"
+    )
+    public void onAfterRestoreAllInBatch(final JoinPoint joinPoint, final BatchResult result) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Restore from archive in batch entities {} with IDs {}. Not found IDs {}. User: {}",
+                entityName(joinPoint), convertIds(result.getAffected()), convertIds(result.getMissing()), user());
+    }
+
     /**
      * Validator/logger for delete entity to archive
      *
@@ -190,6 +341,9 @@ public class AopLoggingService {
             returning = "entity"
     )
     public void onAfterArchivedDelete(final JoinPoint joinPoint, final BaseEntity entity) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete archived entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
@@ -198,27 +352,46 @@ public class AopLoggingService {
             pointcut = "execution(* io.alpere.crudfop.service.ArchiveService.deleteAll(..))"
     )
     public void onAfterArchivedDeleteAll(final JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("Delete archived entity/entities {} with ID/IDs {}. User: {}",
                 entityName(joinPoint), convertDeleteArguments(joinPoint), user());
     }
+
+    /**
+     * Validator/logger for batch delete archived entities
+     *
+     * @param joinPoint Join point object
+     * @param result    ids of deleted and not found archived entities
+     */
+    @AfterReturning(
+            pointcut = "execution(* io.alpere.crudfop.service.ArchiveService.deleteAllInBatch(..))",
+            returning = "result"
+    )
+    public void onAfterArchivedDeleteAllInBatch(final JoinPoint joinPoint, final BatchResult result) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("Delete archived in batch entities {} with IDs {}. Not found IDs {}. User: {}",
+                entityName(joinPoint), convertIds(result.getAffected()), convertIds(result.getMissing()), user());
+    }
+
     private String entityName(final JoinPoint joinPoint) {
-        CrudServiceImpl target = (CrudServiceImpl) joinPoint.getTarget();
-        return target.getEntityClass().getSimpleName();
+        Object target = joinPoint.getTarget();
+        if (target instanceof ArchiveServiceImpl) {
+            return ((ArchiveServiceImpl) target).getEntityClass().getSimpleName();
+        }
+        return ((CrudServiceImpl) target).getEntityClass().getSimpleName();
     }
 
     private String convertArguments(final JoinPoint joinPoint) {
         Object arg = joinPoint.getArgs()[0];
         if (arg instanceof BaseEntity) {
-            return ((BaseEntity) arg).getId().toString();
+            return String.valueOf(((BaseEntity) arg).getId());
         }
         if (arg instanceof Iterable) {
-            Iterable<BaseEntity> entities = (Iterable) arg;
-            List<UUID> result = StreamSupport.stream(entities.spliterator(), false)
-                    .map(BaseEntity::getId)
-                    .collect(Collectors.toList());
-            return result.stream()
-                    .map(UUID::toString)
-                    .collect(Collectors.joining(","));
+            return summarize((Iterable) arg, true);
         }
         return (String) arg;
     }
@@ -226,16 +399,51 @@ public class AopLoggingService {
     private String convertDeleteArguments(final JoinPoint joinPoint) {
         Object arg = joinPoint.getArgs()[0];
         if (arg instanceof Iterable) {
-            Iterable<UUID> ids = (Iterable) arg;
-            return StreamSupport.stream(ids.spliterator(), false)
-                    .map(UUID::toString)
-                    .collect(Collectors.joining(","));
+            return summarize((Iterable) arg, false);
         }
         return arg.toString();
     }
 
+    private String convertIds(final List<UUID> ids) {
+        return summarize(ids, false);
+    }
+
+    /**
+     * Join first {@link #MAX_LOGGED_IDS} ids, the rest is logged as count
+     *
+     * @param elements ids or entities
+     * @param entities elements are entities
+     * @return comma separated ids
+     */
+    private String summarize(final Iterable elements, final boolean entities) {
+        StringBuilder result = new StringBuilder();
+        Iterator iterator = elements.iterator();
+        int count = 0;
+        while (iterator.hasNext() && count < MAX_LOGGED_IDS) {
+            Object element = iterator.next();
+            if (count > 0) {
+                result.append(',');
+            }
+            result.append(entities ? ((BaseEntity) element).getId() : element);
+            count++;
+        }
+        int total = count;
+        if (elements instanceof Collection) {
+            total = ((Collection) elements).size();
+        } else {
+            while (iterator.hasNext()) {
+                iterator.next();
+                total++;
+            }
+        }
+        if (total > count) {
+            result.append(" and ").append(total - count).append(" more");
+        }
+        return result.toString();
+    }
+
     private String user() {
-        String user = auditorAware.user();
+        String user = AuditContext.resolve(auditorAware).getUser();
         return user.isEmpty() ? "unknown" : user;
     }
 }
@@ -0,0 +1,104 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.metrics.MetricsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.BaseStream;
+
+@SuppressWarnings("rawtypes")
+@Aspect
+@Order()
+@RequiredArgsConstructor
+public class AopMetricsService {
+
+    private final MetricsRegistry registry;
+
+    /**
+     * Timer of crud and archive services methods
+     *
+     * @param joinPoint Join point object
+     * @return result of method
+     * @throws Throwable exception of method
+     */
+    @Around(
+            "execution(* io.alpere.crudfop.service.CrudService.*(..)) "
+                    + "|| execution(* io.alpere.crudfop.service.ArchiveService.*(..))"
+    )
+    public Object onAround(final ProceedingJoinPoint joinPoint) throws Throwable {
+        long startedAt = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            registry.operation(entityName(joinPoint), joinPoint.getSignature().getName())
+                    .record(System.nanoTime() - startedAt, batchSize(joinPoint), resultSize(result), failed);
+        }
+    }
+
+    private String entityName(final ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        if (target instanceof ArchiveServiceImpl) {
+            return ((ArchiveServiceImpl) target).getEntityClass().getSimpleName();
+        }
+        if (target instanceof CrudServiceImpl) {
+            return ((CrudServiceImpl) target).getEntityClass().getSimpleName();
+        }
+        return target.getClass().getSimpleName();
+    }
+
+    private int batchSize(final ProceedingJoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        if (args.length == 0) {
+            return 0;
+        }
+        if (args[0] instanceof Collection) {
+            return ((Collection) args[0]).size();
+        }
+        if (args[0] instanceof Iterable) {
+            int size = 0;
+            for (Object ignored : (Iterable) args[0]) {
+                size++;
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    private int resultSize(final Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice) result).getNumberOfElements();
+        }
+        if (result instanceof KeysetPage) {
+            return ((KeysetPage) result).getContent().size();
+        }
+        if (result instanceof BatchResult) {
+            return ((BatchResult) result).getAffected().size();
+        }
+        if (result instanceof UpdateResult) {
+            return ((UpdateResult) result).getUpdated().size();
+        }
+        if (result instanceof Boolean || result instanceof BaseStream) {
+            return 0;
+        }
+        return 1;
+    }
+}
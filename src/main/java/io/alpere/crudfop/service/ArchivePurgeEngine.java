@@ -0,0 +1,239 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.cache.CountCache;
+import io.alpere.crudfop.cache.EntityCache;
+import io.alpere.crudfop.change.ChangeListener;
+import io.alpere.crudfop.change.ChangeType;
+import io.alpere.crudfop.metrics.MetricsRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+/**
+ * Deletes archived entities older than retention of entity class. Entities are deleted in chunks ordered
+ * by deletion time, each chunk in its own transaction with a pause between chunks to protect the primary.
+ * Every chunk is selected by cutoff again, so a purge interrupted by crash is resumed by the next run.
+ * Rows are deleted by class and cutoff rather than through archive services, so one engine serves every class.
+ * Selected rows are locked with skip locked, so a row can not be restored between selection and deletion,
+ * and only deleted ids are reported. Counters are updated and caches invalidated again after commit.
+ */
+@Slf4j
+public class ArchivePurgeEngine {
+    public static final Duration DEFAULT_PAUSE = Duration.ofMillis(100);
+
+    private static final String OPERATION = "purge";
+    private static final String LOCK_TIMEOUT = "javax.persistence.lock.timeout";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Class<?>, Duration> retentions = new ConcurrentHashMap<>();
+    private final Set<Class<?>> running = ConcurrentHashMap.newKeySet();
+    private final LongAdder purged = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    @Getter
+    private int batchSize = CrudServiceImpl.DEFAULT_BATCH_SIZE;
+    @Getter
+    @Setter
+    private Duration pause = DEFAULT_PAUSE;
+    @Setter
+    private CountCache countCache;
+    @Setter
+    private EntityCache entityCache;
+    @Setter
+    private MetricsRegistry metricsRegistry;
+    @Setter
+    private ChangeListener changeListener;
+
+    public ArchivePurgeEngine(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Set retention of archived entities of class
+     *
+     * @param entityClass class of entity
+     * @param retention   time archived entities are kept
+     */
+    public void retain(Class<?> entityClass, Duration retention) {
+        Objects.requireNonNull(retention, "Retention should not be null.");
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Retention should not be negative.");
+        }
+        retentions.put(entityClass, retention);
+    }
+
+    /**
+     * Purge expired archived entities of all classes with retention
+     *
+     * @return count of purged entities by class
+     */
+    public Map<Class<?>, Long> purgeAll() {
+        Map<Class<?>, Long> result = new LinkedHashMap<>();
+        for (Class<?> entityClass : retentions.keySet()) {
+            try {
+                result.put(entityClass, purge(entityClass));
+            } catch (RuntimeException e) {
+                log.warn("Purge of archived entities {} failed.", entityClass.getSimpleName(), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Purge archived entities of class deleted before now minus retention
+     *
+     * @param entityClass class of entity
+     * @return count of purged entities, 0 if purge of class is already running
+     */
+    public long purge(Class<?> entityClass) {
+        Duration retention = retentions.get(entityClass);
+        String message = String.format("Retention of [%s] is not set.", entityClass.getSimpleName());
+        Objects.requireNonNull(retention, message);
+        if (!running.add(entityClass)) {
+            return 0;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(retention);
+            long total = 0;
+            int count;
+            do {
+                long startedAt = System.nanoTime();
+                List<UUID> ids;
+                try {
+                    ids = transactionTemplate.execute(status -> purgeChunk(entityClass, cutoff));
+                } catch (RuntimeException e) {
+                    record(entityClass, System.nanoTime() - startedAt, 0, true);
+                    throw e;
+                }
+                count = ids == null ? 0 : ids.size();
+                record(entityClass, System.nanoTime() - startedAt, count, false);
+                if (count > 0) {
+                    purged.add(count);
+                    chunks.increment();
+                    invalidate(entityClass, ids);
+                }
+                total += count;
+                if (count == batchSize) {
+                    sleep();
+                }
+            } while (count == batchSize && !Thread.currentThread().isInterrupted());
+            log.debug("Purged {} archived entities {} deleted before {}.", total, entityClass.getSimpleName(), cutoff);
+            return total;
+        } finally {
+            running.remove(entityClass);
+        }
+    }
+
+    /**
+     * Periodically purge expired archived entities of all classes with retention
+     *
+     * @param scheduler scheduler
+     * @param interval  interval between purges
+     * @return scheduled task
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration interval) {
+        long millis = interval.toMillis();
+        return scheduler.scheduleWithFixedDelay(this::purgeAll, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set max count of entities deleted in one transaction
+     *
+     * @param batchSize max count of entities
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public long getPurgedCount() {
+        return purged.sum();
+    }
+
+    public long getChunkCount() {
+        return chunks.sum();
+    }
+
+    public Set<Class<?>> getRunning() {
+        return Collections.unmodifiableSet(running);
+    }
+
+    private List<UUID> purgeChunk(Class<?> entityClass, Instant cutoff) {
+        String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+        List<UUID> ids = entityManager.createQuery("select e.id from " + entityName + " e "
+                + "where e.deletedAt < :cutoff order by e.deletedAt", UUID.class)
+                .setParameter("cutoff", cutoff)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        int deleted = entityManager.createQuery("delete from " + entityName + " e "
+                + "where e.id in :ids and e.deletedAt < :cutoff")
+                .setParameter("ids", ids)
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+        if (deleted != ids.size()) {
+            ids = Batches.missing(ids, entityManager.createQuery("select e.id from " + entityName + " e "
+                    + "where e.id in :ids", UUID.class)
+                    .setParameter("ids", ids)
+                    .getResultList());
+        }
+        invalidate(entityClass, ids);
+        if (changeListener != null) {
+            ids.forEach(id -> changeListener.onChange(ChangeType.PURGED, entityClass, id, null));
+        }
+        return ids;
+    }
+
+    private void invalidate(Class<?> entityClass, List<UUID> ids) {
+        if (countCache != null) {
+            countCache.invalidate(entityClass);
+        }
+        if (entityCache != null) {
+            ids.forEach(id -> entityCache.evict(entityClass, id));
+        }
+    }
+
+    private void record(Class<?> entityClass, long nanos, int count, boolean failed) {
+        if (metricsRegistry != null) {
+            metricsRegistry.operation(entityClass.getSimpleName(), OPERATION).record(nanos, batchSize, count, failed);
+        }
+    }
+
+    private void sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
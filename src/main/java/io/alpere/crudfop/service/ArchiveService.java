@@ -1,7 +1,10 @@
 package io.alpere.crudfop.service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 
@@ -29,6 +32,38 @@ public interface ArchiveService<ArchivedEntity> {
      */
     List<ArchivedEntity> findAll(BooleanExpression predicate);
 
+    /**
+     * Get all archived entities with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @return stream of detached archived entities
+     */
+    Stream<ArchivedEntity> stream();
+
+    /**
+     * Get filtered archived entities with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @param predicate BooleanExpression
+     * @return stream of detached archived entities
+     */
+    Stream<ArchivedEntity> stream(BooleanExpression predicate);
+
+    /**
+     * Process all archived entities one by one with server side cursor
+     *
+     * @param action action applied to each entity
+     */
+    void forEach(Consumer<ArchivedEntity> action);
+
+    /**
+     * Process filtered archived entities one by one with server side cursor
+     *
+     * @param predicate BooleanExpression
+     * @param action    action applied to each entity
+     */
+    void forEach(BooleanExpression predicate, Consumer<ArchivedEntity> action);
+
     /**
      * Restore entity from archive
      *
@@ -58,6 +93,14 @@ public interface ArchiveService<ArchivedEntity> {
      */
     void restoreAll(Iterable<UUID> ids);
 
+    /**
+     * Restore entities from archive with chunked update statements
+     *
+     * @param ids list of entities ids
+     * @return ids of restored and not found archived entities
+     */
+    BatchResult restoreAllInBatch(Iterable<UUID> ids);
+
 
     /**
      * Delete archived entity
@@ -87,4 +130,28 @@ public interface ArchiveService<ArchivedEntity> {
      */
     void deleteAll(Iterable<UUID> ids);
 
+    /**
+     * Delete archived entities with chunked delete statements
+     *
+     * @param ids list of archived entities ids
+     * @return ids of deleted and not found archived entities
+     */
+    BatchResult deleteAllInBatch(Iterable<UUID> ids);
+
+    /**
+     * Entity with specified id is exist?
+     *
+     * @param id id of entity to check
+     * @return true or false
+     */
+    boolean exists(UUID id);
+
+    /**
+     * Get ids of existing entities
+     *
+     * @param ids ids of entities to check
+     * @return set of existing ids
+     */
+    Set<UUID> existing(Iterable<UUID> ids);
+
 }
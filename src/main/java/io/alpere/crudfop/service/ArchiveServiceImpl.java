@@ -1,107 +1,458 @@
 package io.alpere.crudfop.service;
 
+import io.alpere.crudfop.audit.AuditContext;
+import io.alpere.crudfop.audit.AuditProvider;
+import io.alpere.crudfop.cache.CountCache;
+import io.alpere.crudfop.cache.EntityCache;
+import io.alpere.crudfop.change.ChangeListener;
+import io.alpere.crudfop.change.ChangeType;
 import io.alpere.crudfop.exception.EntityNotExistsException;
 import io.alpere.crudfop.model.BaseEntity;
 import io.alpere.crudfop.repository.BaseRepository;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
+import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Getter
 public class ArchiveServiceImpl<ArchivedEntity extends BaseEntity> implements ArchiveService<ArchivedEntity> {
     protected final BaseRepository<ArchivedEntity> repository;
+    private final AuditProvider auditorAware;
     protected final Class<?> entityClass;
+    protected final EntityPath<ArchivedEntity> entityPath;
+    @PersistenceContext
+    protected EntityManager entityManager;
+    private int batchSize = CrudServiceImpl.DEFAULT_BATCH_SIZE;
+    private int fetchSize = CrudServiceImpl.DEFAULT_FETCH_SIZE;
+    @Setter
+    private CountCache countCache;
+    @Setter
+    private EntityCache entityCache;
+    /**
+     * Cold storage tier, when set service entity class should be the archive entity of the tier
+     */
+    @Setter
+    private ArchiveTier archiveTier;
+    /**
+     * Listener of changes called in transaction of change, e.g. outbox
+     */
+    @Setter
+    private ChangeListener changeListener;
+    /**
+     * Restrict queries to deleted entities
+     */
+    @Setter
+    private boolean scoped = true;
 
     public ArchiveServiceImpl(BaseRepository<ArchivedEntity> repository, Class<?> entityClass) throws Exception {
+        this(repository, null, entityClass);
+    }
+
+    public ArchiveServiceImpl(BaseRepository<ArchivedEntity> repository, AuditProvider auditorAware,
+                              Class<?> entityClass) throws Exception {
         if (!isBaseEntity(entityClass)) {
             throw new Exception("Error service initialization. Class not extend BaseEntity.");
         }
         this.repository = repository;
+        this.auditorAware = auditorAware;
         this.entityClass = entityClass;
+        this.entityPath = EntityQueries.entityPath(entityClass);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ArchivedEntity findOne(UUID id) {
         notNull(id);
-        return repository.findById(id)
+        if (entityCache == null) {
+            return repository.findById(id)
+                    .orElseThrow(() -> new EntityNotExistsException(entityClass.getSimpleName(), id));
+        }
+        ArchivedEntity archivedEntity = entityCache.get(entityClass, id);
+        if (archivedEntity != null) {
+            return archivedEntity;
+        }
+        long loadStartedAt = System.nanoTime();
+        archivedEntity = repository.findById(id)
                 .orElseThrow(() -> new EntityNotExistsException(entityClass.getSimpleName(), id));
+        putAfterCommit(archivedEntity, loadStartedAt);
+        return archivedEntity;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ArchivedEntity> findAll() {
-        return repository.findAll();
+        if (!scoped) {
+            return repository.findAll();
+        }
+        return newArrayList(repository.findAll(scope(null)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ArchivedEntity> findAll(BooleanExpression predicate) {
         if (predicate != null) {
-            return newArrayList(repository.findAll(predicate));
+            return newArrayList(repository.findAll(scope(predicate)));
         }
         return findAll();
     }
 
     @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<ArchivedEntity> stream() {
+        return stream(null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<ArchivedEntity> stream(BooleanExpression predicate) {
+        return EntityQueries.stream(EntityQueries.selectFrom(entityManager, entityPath, scope(predicate)), fetchSize,
+                true)
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    @Transactional
+    public void forEach(Consumer<ArchivedEntity> action) {
+        forEach(null, action);
+    }
+
+    @Override
+    @Transactional
+    public void forEach(BooleanExpression predicate, Consumer<ArchivedEntity> action) {
+        notNullAction(action);
+        try (Stream<ArchivedEntity> entities = EntityQueries.stream(
+                EntityQueries.selectFrom(entityManager, entityPath, scope(predicate)), fetchSize, false)) {
+            Iterator<ArchivedEntity> iterator = entities.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % fetchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional
     public ArchivedEntity restore(ArchivedEntity archivedEntity) {
         notNull(archivedEntity);
+        if (archiveTier != null) {
+            // row is moved by native statements, managed instance would be updated at commit
+            entityManager.flush();
+            entityManager.detach(archivedEntity);
+            BatchResult result = archiveTier.restore(entityClass, Collections.singletonList(archivedEntity.getId()),
+                    Instant.now(), user());
+            if (!result.getAffected().isEmpty()) {
+                archivedEntity.setDeletedAt(null);
+                archivedEntity.setDeletedBy(null);
+                changed(ChangeType.RESTORED, archivedEntity);
+            }
+            return archivedEntity;
+        }
         if (exists(archivedEntity.getId())) {
+            invalidate(archivedEntity.getId());
             archivedEntity.setDeletedAt(null);
             archivedEntity.setDeletedBy(null);
             repository.save(archivedEntity);
+            changed(ChangeType.RESTORED, archivedEntity);
         }
         return archivedEntity;
     }
 
     @Override
+    @Transactional
     public ArchivedEntity restore(UUID id) {
         return restore(findOne(id));
     }
 
     @Override
+    @Transactional
     public void restore(Iterable<ArchivedEntity> entities) {
-        entities.forEach(this::restore);
+        notNull(entities);
+        if (archiveTier != null) {
+            entityManager.flush();
+            entities.forEach(entityManager::detach);
+            Set<UUID> restoredIds = new HashSet<>(archiveTier.restore(entityClass, ids(entities), Instant.now(), user())
+                    .getAffected());
+            for (ArchivedEntity archivedEntity : entities) {
+                if (restoredIds.contains(archivedEntity.getId())) {
+                    archivedEntity.setDeletedAt(null);
+                    archivedEntity.setDeletedBy(null);
+                    changed(ChangeType.RESTORED, archivedEntity);
+                }
+            }
+            return;
+        }
+        Set<UUID> existingIds = existing(ids(entities));
+        invalidate(existingIds);
+        for (ArchivedEntity archivedEntity : entities) {
+            if (existingIds.contains(archivedEntity.getId())) {
+                archivedEntity.setDeletedAt(null);
+                archivedEntity.setDeletedBy(null);
+                repository.save(archivedEntity);
+                changed(ChangeType.RESTORED, archivedEntity);
+            }
+        }
     }
 
     @Override
+    @Transactional
     public void restoreAll(Iterable<UUID> ids) {
         notNullIds(ids);
         ids.forEach(this::restore);
     }
 
     @Override
+    @Transactional
+    public BatchResult restoreAllInBatch(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        Instant updatedAt = Instant.now();
+        String updatedBy = user();
+        if (archiveTier != null) {
+            BatchResult result = archiveTier.restore(entityClass, ids, updatedAt, updatedBy);
+            changed(ChangeType.RESTORED, result.getAffected());
+            return result;
+        }
+        List<UUID> affected = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            List<UUID> archivedIds = repository.findArchivedIds(chunk);
+            invalidate(archivedIds);
+            if (!archivedIds.isEmpty()) {
+                if (VersionedUpdates.isLongVersioned(entityClass)) {
+                    VersionedUpdates.restore(entityManager, entityClass, archivedIds, updatedAt, updatedBy);
+                } else {
+                    repository.restoreAllById(archivedIds, updatedAt, updatedBy);
+                }
+                changed(ChangeType.RESTORED, archivedIds);
+            }
+            affected.addAll(archivedIds);
+            missing.addAll(Batches.missing(chunk, archivedIds));
+        }
+        return new BatchResult(affected, missing);
+    }
+
+    @Override
+    @Transactional
     public void delete(ArchivedEntity archivedEntity) {
         notNull(archivedEntity);
+        invalidate(archivedEntity.getId());
         repository.delete(archivedEntity);
+        changed(ChangeType.DELETED, archivedEntity);
     }
 
     @Override
+    @Transactional
     public void delete(UUID id) {
         notNull(id);
+        invalidate(id);
         repository.deleteById(id);
+        changed(ChangeType.DELETED, Collections.singletonList(id));
     }
 
     @Override
+    @Transactional
     public void delete(Iterable<ArchivedEntity> archivedEntities) {
         notNull(archivedEntities);
+        invalidate(ids(archivedEntities));
         repository.deleteAll(archivedEntities);
+        archivedEntities.forEach(archivedEntity -> changed(ChangeType.DELETED, archivedEntity));
     }
 
     @Override
+    @Transactional
     public void deleteAll(Iterable<UUID> ids) {
         notNullIds(ids);
         ids.forEach(this::delete);
     }
 
+    @Override
+    @Transactional
+    public BatchResult deleteAllInBatch(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        List<UUID> affected = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            List<UUID> archivedIds = repository.findArchivedIds(chunk);
+            invalidate(archivedIds);
+            if (!archivedIds.isEmpty()) {
+                repository.deleteArchivedById(archivedIds);
+                changed(ChangeType.DELETED, archivedIds);
+            }
+            affected.addAll(archivedIds);
+            missing.addAll(Batches.missing(chunk, archivedIds));
+        }
+        return new BatchResult(affected, missing);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean exists(UUID id) {
         notNull(id);
-        return repository.findById(id).isPresent();
+        if (entityCache != null && entityCache.contains(entityClass, id)) {
+            return true;
+        }
+        return repository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<UUID> existing(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        Set<UUID> result = new HashSet<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            result.addAll(repository.findExistingIds(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * Set max count of ids in one statement of batch operations
+     *
+     * @param batchSize max count of ids
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set count of rows fetched at once by streaming methods.
+     * Persistence context is cleared after each fetched portion.
+     *
+     * @param fetchSize count of rows
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size should be positive.");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    private BooleanExpression scope(BooleanExpression predicate) {
+        if (!scoped) {
+            return predicate;
+        }
+        BooleanExpression archived = EntityQueries.deletedAt(entityPath).isNotNull();
+        return predicate == null ? archived : archived.and(predicate);
+    }
+
+    private void changed(ChangeType type, ArchivedEntity archivedEntity) {
+        if (changeListener != null) {
+            changeListener.onChange(type, entityClass, archivedEntity.getId(), archivedEntity);
+        }
+    }
+
+    private void changed(ChangeType type, Collection<UUID> ids) {
+        if (changeListener != null) {
+            ids.forEach(id -> changeListener.onChange(type, entityClass, id, null));
+        }
+    }
+
+    private void invalidate(UUID id) {
+        invalidate(id == null ? Collections.emptyList() : Collections.singletonList(id));
+    }
+
+    /**
+     * Invalidate count cache once and evict entities now and again after completion of transaction
+     */
+    private void invalidate(Collection<UUID> ids) {
+        if (countCache != null) {
+            countCache.invalidate(entityClass);
+        }
+        if (entityCache != null) {
+            ids.stream().filter(Objects::nonNull).forEach(id -> entityCache.evict(entityClass, id));
+        }
+        boolean cached = countCache != null || entityCache != null;
+        if (cached && TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidated().addAll(ids);
+        }
+    }
+
+    private void putAfterCommit(ArchivedEntity archivedEntity, long loadStartedAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityCache.put(entityClass, archivedEntity, loadStartedAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityCache.put(entityClass, archivedEntity, loadStartedAt);
+            }
+        });
+    }
+
+    /**
+     * Get ids invalidated in current transaction, the first invalidation binds them and registers
+     * one synchronization invalidating caches again after commit and completion
+     */
+    @SuppressWarnings("unchecked")
+    private Set<UUID> invalidated() {
+        Set<UUID> bound = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        Set<UUID> ids = new HashSet<>();
+        Object key = this;
+        TransactionSynchronizationManager.bindResource(key, ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(key, ids);
+            }
+
+            @Override
+            public void afterCommit() {
+                if (countCache != null) {
+                    countCache.invalidate(entityClass);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                if (entityCache != null) {
+                    ids.stream().filter(Objects::nonNull).forEach(id -> entityCache.evict(entityClass, id));
+                }
+            }
+        });
+        return ids;
     }
 
     private boolean isBaseEntity(Class entityClass) {
@@ -129,6 +480,23 @@ public class ArchiveServiceImpl<ArchivedEntity extends BaseEntity> implements Ar
         entities.forEach(this::notNull);
     }
 
+    private void notNullAction(Consumer<ArchivedEntity> action) {
+        String message = String.format("Action for archived [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(action, message);
+    }
+
+    private List<UUID> ids(Iterable<ArchivedEntity> entities) {
+        return StreamSupport.stream(entities.spliterator(), false)
+                .map(BaseEntity::getId)
+                .collect(Collectors.toList());
+    }
+
+    private String user() {
+        AuditContext context = auditorAware == null ? AuditContext.current() : AuditContext.resolve(auditorAware);
+        String user = context == null ? "" : context.getUser();
+        return user.isEmpty() ? "unknown user" : user;
+    }
+
     private List<ArchivedEntity> newArrayList(Iterable<ArchivedEntity> elements) {
         notNull(elements);
         return StreamSupport.stream(elements.spliterator(), false)
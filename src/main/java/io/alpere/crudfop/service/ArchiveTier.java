@@ -0,0 +1,304 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.cache.CountCache;
+import io.alpere.crudfop.cache.EntityCache;
+import io.alpere.crudfop.model.BaseEntity;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.Type;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+/**
+ * Cold storage of soft deleted entities. Soft deleted rows are moved from the table of live entity
+ * to the table of archive entity and back on restore. Live and archive entities should extend
+ * the same mapped superclass, so both tables have the same columns, and archive service should be
+ * created for archive entity to query archive table directly.
+ * Moved rows are selected with skip locked and copied only while still soft deleted, so a row restored
+ * concurrently stays in the live table.
+ */
+@Slf4j
+public class ArchiveTier {
+    private static final String LOCK_TIMEOUT = "javax.persistence.lock.timeout";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Class<?>, Class<?>> archiveClasses = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Class<?>> liveClasses = new ConcurrentHashMap<>();
+    @Getter
+    private int batchSize = CrudServiceImpl.DEFAULT_BATCH_SIZE;
+    @Setter
+    private CountCache countCache;
+    @Setter
+    private EntityCache entityCache;
+
+    public ArchiveTier(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Register archive entity of live entity
+     *
+     * @param liveClass    class of live entity
+     * @param archiveClass class of archive entity
+     */
+    public void register(Class<?> liveClass, Class<?> archiveClass) {
+        if (!BaseEntity.class.isAssignableFrom(liveClass) || !BaseEntity.class.isAssignableFrom(archiveClass)) {
+            throw new IllegalArgumentException("Live and archive classes should extend BaseEntity.");
+        }
+        archiveClasses.put(liveClass, archiveClass);
+        liveClasses.put(archiveClass, liveClass);
+    }
+
+    /**
+     * Move all soft deleted entities of live class to archive table, each chunk in its own transaction
+     *
+     * @param liveClass class of live entity
+     * @return count of moved entities
+     */
+    public int moveArchived(Class<?> liveClass) {
+        Class<?> archiveClass = archiveClass(liveClass);
+        int moved = 0;
+        int count;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> moveChunk(liveClass, archiveClass));
+            count = chunk == null ? 0 : chunk;
+            moved += count;
+        } while (count == batchSize);
+        log.debug("Moved {} archived entities {} to archive table.", moved, liveClass.getSimpleName());
+        return moved;
+    }
+
+    /**
+     * Move all soft deleted entities of live class to archive table on executor
+     *
+     * @param liveClass class of live entity
+     * @param executor  executor
+     * @return future of count of moved entities
+     */
+    public CompletableFuture<Integer> moveArchivedAsync(Class<?> liveClass, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> moveArchived(liveClass), executor);
+    }
+
+    /**
+     * Periodically move soft deleted entities of all registered classes to archive tables
+     *
+     * @param scheduler scheduler
+     * @param interval  interval between moves
+     * @return scheduled task
+     */
+    public ScheduledFuture<?> scheduleMoves(ScheduledExecutorService scheduler, Duration interval) {
+        long millis = interval.toMillis();
+        return scheduler.scheduleWithFixedDelay(() -> archiveClasses.keySet().forEach(liveClass -> {
+            try {
+                moveArchived(liveClass);
+            } catch (RuntimeException e) {
+                log.warn("Moving of archived entities {} failed.", liveClass.getSimpleName(), e);
+            }
+        }), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Move entities from archive table back to live table and restore them
+     *
+     * @param archiveClass class of archive entity
+     * @param ids          ids of archived entities
+     * @param updatedAt    time of restore
+     * @param updatedBy    user who restores entities
+     * @return ids of restored and not found archived entities, rows locked by concurrent restore are not found
+     */
+    public BatchResult restore(Class<?> archiveClass, Iterable<UUID> ids, Instant updatedAt, String updatedBy) {
+        Class<?> liveClass = liveClass(archiveClass);
+        List<UUID> affected = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            transactionTemplate.execute(status -> {
+                List<UUID> archivedIds = findIds(archiveClass, chunk);
+                if (!archivedIds.isEmpty()) {
+                    copy(archiveClass, liveClass, archivedIds);
+                    entityManager.createQuery("update " + entityName(liveClass) + " e "
+                            + "set e.deletedAt = null, e.deletedBy = null, "
+                            + "e.updatedAt = :updatedAt, e.updatedBy = :updatedBy"
+                            + VersionedUpdates.incrementVersion(liveClass) + " where e.id in :ids")
+                            .setParameter("updatedAt", updatedAt)
+                            .setParameter("updatedBy", updatedBy)
+                            .setParameter("ids", archivedIds)
+                            .executeUpdate();
+                }
+                invalidate(liveClass, archivedIds);
+                invalidate(archiveClass, archivedIds);
+                affected.addAll(archivedIds);
+                missing.addAll(Batches.missing(chunk, archivedIds));
+                return null;
+            });
+        }
+        return new BatchResult(affected, missing);
+    }
+
+    /**
+     * Get DDL of archive table with the same columns and indexes as live table, PostgreSQL syntax
+     *
+     * @param liveClass class of live entity
+     * @return create table statement
+     */
+    public String archiveTableDdl(Class<?> liveClass) {
+        return String.format("create table if not exists %s (like %s including all)",
+                persister(archiveClass(liveClass)).getTableName(), persister(liveClass).getTableName());
+    }
+
+    /**
+     * Set max count of entities moved in one transaction
+     *
+     * @param batchSize max count of entities
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    private int moveChunk(Class<?> liveClass, Class<?> archiveClass) {
+        List<UUID> ids = entityManager.createQuery("select e.id from " + entityName(liveClass) + " e "
+                + "where e.deletedAt is not null order by e.id", UUID.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (!ids.isEmpty()) {
+            copy(liveClass, archiveClass, ids);
+            invalidate(liveClass, ids);
+            invalidate(archiveClass, ids);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Copy soft deleted rows to target table and delete them from source table
+     */
+    private void copy(Class<?> sourceClass, Class<?> targetClass, List<UUID> ids) {
+        AbstractEntityPersister source = persister(sourceClass);
+        AbstractEntityPersister target = persister(targetClass);
+        String columns = String.join(", ", columns(source));
+        String idColumn = source.getIdentifierColumnNames()[0];
+        String deletedAtColumn = source.getPropertyColumnNames("deletedAt")[0];
+        Type idType = source.getIdentifierType();
+
+        entityManager.createNativeQuery(String.format(
+                "insert into %s (%s) select %s from %s where %s in (:ids) and %s is not null",
+                target.getTableName(), columns, columns, source.getTableName(), idColumn, deletedAtColumn))
+                .unwrap(NativeQuery.class)
+                .setParameterList("ids", ids, idType)
+                .executeUpdate();
+        entityManager.createNativeQuery(String.format("delete from %s where %s in (:ids) and %s is not null",
+                source.getTableName(), idColumn, deletedAtColumn))
+                .unwrap(NativeQuery.class)
+                .setParameterList("ids", ids, idType)
+                .executeUpdate();
+    }
+
+    private List<UUID> findIds(Class<?> entityClass, List<UUID> ids) {
+        return entityManager.createQuery("select e.id from " + entityName(entityClass) + " e where e.id in :ids",
+                UUID.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                .getResultList();
+    }
+
+    private List<String> columns(AbstractEntityPersister persister) {
+        List<String> columns = new ArrayList<>(Arrays.asList(persister.getIdentifierColumnNames()));
+        Type[] types = persister.getPropertyTypes();
+        String[] properties = persister.getPropertyNames();
+        for (int i = 0; i < properties.length; i++) {
+            if (types[i].isCollectionType()) {
+                continue;
+            }
+            for (String column : persister.getPropertyColumnNames(i)) {
+                if (column != null) {
+                    columns.add(column);
+                }
+            }
+        }
+        return columns;
+    }
+
+    private void invalidate(Class<?> entityClass, List<UUID> ids) {
+        if (countCache != null) {
+            countCache.invalidate(entityClass);
+        }
+        if (entityCache != null) {
+            ids.forEach(id -> entityCache.evict(entityClass, id));
+        }
+        invalidateAfterCompletion(entityClass, ids);
+    }
+
+    private void invalidateAfterCompletion(Class<?> entityClass, List<UUID> ids) {
+        boolean cached = countCache != null || entityCache != null;
+        if (!cached || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (countCache != null) {
+                    countCache.invalidate(entityClass);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (entityCache != null) {
+                    ids.forEach(id -> entityCache.evict(entityClass, id));
+                }
+            }
+        });
+    }
+
+    private AbstractEntityPersister persister(Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        return (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(entityClass);
+    }
+
+    private String entityName(Class<?> entityClass) {
+        return entityManager.getMetamodel().entity(entityClass).getName();
+    }
+
+    private Class<?> archiveClass(Class<?> liveClass) {
+        Class<?> archiveClass = archiveClasses.get(liveClass);
+        String message = String.format("Archive entity of [%s] is not registered.", liveClass.getSimpleName());
+        return Objects.requireNonNull(archiveClass, message);
+    }
+
+    private Class<?> liveClass(Class<?> archiveClass) {
+        Class<?> liveClass = liveClasses.get(archiveClass);
+        String message = String.format("Live entity of [%s] is not registered.", archiveClass.getSimpleName());
+        return Objects.requireNonNull(liveClass, message);
+    }
+}
@@ -0,0 +1,59 @@
+package io.alpere.crudfop.service;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking facade of archive service, calls run on {@link CrudTaskExecutor}
+ */
+@Getter
+@RequiredArgsConstructor
+public class AsyncArchiveService<ArchivedEntity> {
+    private final ArchiveService<ArchivedEntity> archiveService;
+    private final CrudTaskExecutor executor;
+
+    public CompletableFuture<ArchivedEntity> findOne(UUID id) {
+        return executor.read(() -> archiveService.findOne(id));
+    }
+
+    public CompletableFuture<List<ArchivedEntity>> findAll() {
+        return executor.read(archiveService::findAll);
+    }
+
+    public CompletableFuture<List<ArchivedEntity>> findAll(BooleanExpression predicate) {
+        return executor.read(() -> archiveService.findAll(predicate));
+    }
+
+    public CompletableFuture<Boolean> exists(UUID id) {
+        return executor.read(() -> archiveService.exists(id));
+    }
+
+    public CompletableFuture<Set<UUID>> existing(Iterable<UUID> ids) {
+        return executor.read(() -> archiveService.existing(ids));
+    }
+
+    public CompletableFuture<ArchivedEntity> restore(UUID id) {
+        return executor.write(() -> archiveService.restore(id));
+    }
+
+    public CompletableFuture<BatchResult> restoreAllInBatch(Iterable<UUID> ids) {
+        return executor.write(() -> archiveService.restoreAllInBatch(ids));
+    }
+
+    public CompletableFuture<Void> delete(UUID id) {
+        return executor.write(() -> {
+            archiveService.delete(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<BatchResult> deleteAllInBatch(Iterable<UUID> ids) {
+        return executor.write(() -> archiveService.deleteAllInBatch(ids));
+    }
+}
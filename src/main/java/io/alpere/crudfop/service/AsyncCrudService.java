@@ -0,0 +1,75 @@
+package io.alpere.crudfop.service;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking facade of crud service, calls run on {@link CrudTaskExecutor}
+ */
+@Getter
+@RequiredArgsConstructor
+public class AsyncCrudService<Entity> {
+    private final CrudService<Entity> crudService;
+    private final CrudTaskExecutor executor;
+
+    public CompletableFuture<Entity> findOne(UUID id) {
+        return executor.read(() -> crudService.findOne(id));
+    }
+
+    public CompletableFuture<List<Entity>> findAll() {
+        return executor.read(crudService::findAll);
+    }
+
+    public CompletableFuture<List<Entity>> findAll(BooleanExpression predicate) {
+        return executor.read(() -> crudService.findAll(predicate));
+    }
+
+    public CompletableFuture<Page<Entity>> page(BooleanExpression predicate, List<Order> orders, int page, int size) {
+        return executor.read(() -> crudService.page(predicate, orders, page, size));
+    }
+
+    public CompletableFuture<Slice<Entity>> slice(BooleanExpression predicate, List<Order> orders, int page,
+                                                  int size) {
+        return executor.read(() -> crudService.slice(predicate, orders, page, size));
+    }
+
+    public CompletableFuture<Boolean> exists(UUID id) {
+        return executor.read(() -> crudService.exists(id));
+    }
+
+    public CompletableFuture<Set<UUID>> existing(Iterable<UUID> ids) {
+        return executor.read(() -> crudService.existing(ids));
+    }
+
+    public CompletableFuture<Entity> save(Entity entity) {
+        return executor.write(() -> crudService.save(entity));
+    }
+
+    public CompletableFuture<List<Entity>> save(Iterable<Entity> entities) {
+        return executor.write(() -> crudService.save(entities));
+    }
+
+    public CompletableFuture<Entity> softDelete(UUID id) {
+        return executor.write(() -> crudService.softDelete(id));
+    }
+
+    public CompletableFuture<BatchResult> softDeleteAllInBatch(Iterable<UUID> ids) {
+        return executor.write(() -> crudService.softDeleteAllInBatch(ids));
+    }
+
+    public CompletableFuture<Void> delete(UUID id) {
+        return executor.write(() -> {
+            crudService.delete(id);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package io.alpere.crudfop.service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+public class BatchResult {
+
+    private final List<UUID> affected;
+
+    private final List<UUID> missing;
+
+    public BatchResult(List<UUID> affected, List<UUID> missing) {
+        this.affected = Collections.unmodifiableList(affected);
+        this.missing = Collections.unmodifiableList(missing);
+    }
+}
@@ -0,0 +1,56 @@
+package io.alpere.crudfop.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Batches {
+
+    private Batches() {
+    }
+
+    /**
+     * Split elements to chunks without duplicates
+     *
+     * @param elements list of elements
+     * @param size     max size of chunk
+     * @return list of chunks
+     */
+    static <T> List<List<T>> partition(Iterable<T> elements, int size) {
+        Set<T> unique = new LinkedHashSet<>();
+        elements.forEach(unique::add);
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(Math.min(size, unique.size()));
+        for (T element : unique) {
+            chunk.add(element);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Get elements of chunk which are not present in found elements
+     *
+     * @param chunk chunk of elements
+     * @param found found elements
+     * @return not found elements
+     */
+    static <T> List<T> missing(List<T> chunk, Collection<T> found) {
+        Set<T> foundSet = new LinkedHashSet<>(found);
+        List<T> result = new ArrayList<>();
+        for (T element : chunk) {
+            if (!foundSet.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+}
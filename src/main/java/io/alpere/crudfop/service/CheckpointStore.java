@@ -0,0 +1,31 @@
+package io.alpere.crudfop.service;
+
+import java.util.UUID;
+
+/**
+ * Storage of progress of resumable jobs
+ */
+public interface CheckpointStore {
+    /**
+     * Get last processed id of job
+     *
+     * @param jobName name of job
+     * @return last processed id or null if job was not started
+     */
+    UUID load(String jobName);
+
+    /**
+     * Save last processed id of job
+     *
+     * @param jobName name of job
+     * @param lastId  last processed id
+     */
+    void save(String jobName, UUID lastId);
+
+    /**
+     * Remove progress of finished job
+     *
+     * @param jobName name of job
+     */
+    void clear(String jobName);
+}
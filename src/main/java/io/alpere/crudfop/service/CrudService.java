@@ -1,11 +1,16 @@
 package io.alpere.crudfop.service;
 
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Order;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface CrudService<Entity> {
     /**
@@ -31,6 +36,99 @@ public interface CrudService<Entity> {
      */
     List<Entity> findAll(BooleanExpression predicate);
 
+    /**
+     * Get entities by ids. Not existing ids are skipped.
+     *
+     * @param ids UUIDs of entities
+     * @return list of entities
+     */
+    List<Entity> findAllById(Iterable<UUID> ids);
+
+    /**
+     * Get all entities with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @return stream of detached entities
+     */
+    Stream<Entity> stream();
+
+    /**
+     * Get filtered entities with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @param predicate BooleanExpression
+     * @return stream of detached entities
+     */
+    Stream<Entity> stream(BooleanExpression predicate);
+
+    /**
+     * Get filtered and ordered projections of entities.
+     * Only projected columns are selected, results are not managed by persistence context.
+     *
+     * @param projection QueryDSL expression over entity path, e.g. Projections.constructor
+     * @param predicate  BooleanExpression
+     * @param orders     list of OrderBy
+     * @return list of projections
+     */
+    <P> List<P> findAll(Expression<P> projection, BooleanExpression predicate, List<Order> orders);
+
+    /**
+     * Get filtered and ordered DTOs. DTO fields are filled from entity properties with the same names.
+     *
+     * @param type      class of DTO
+     * @param predicate BooleanExpression
+     * @param orders    list of OrderBy
+     * @return list of DTOs
+     */
+    <P> List<P> findAll(Class<P> type, BooleanExpression predicate, List<Order> orders);
+
+    /**
+     * Get filtered projections of entities with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @param projection QueryDSL expression over entity path
+     * @param predicate  BooleanExpression
+     * @return stream of projections
+     */
+    <P> Stream<P> stream(Expression<P> projection, BooleanExpression predicate);
+
+    /**
+     * Get filtered DTOs with server side cursor.
+     * Should be called inside transaction, stream should be closed after use.
+     *
+     * @param type      class of DTO
+     * @param predicate BooleanExpression
+     * @return stream of DTOs
+     */
+    <P> Stream<P> stream(Class<P> type, BooleanExpression predicate);
+
+    /**
+     * Process all entities one by one with server side cursor
+     *
+     * @param action action applied to each entity
+     */
+    void forEach(Consumer<Entity> action);
+
+    /**
+     * Process filtered entities one by one with server side cursor
+     *
+     * @param predicate BooleanExpression
+     * @param action    action applied to each entity
+     */
+    void forEach(BooleanExpression predicate, Consumer<Entity> action);
+
+    /**
+     * Process filtered entities in chunks ordered by id. Each chunk is processed in its own
+     * transaction on a worker thread of executor from options, progress is saved after each group of chunks.
+     * Action may be applied again to entities of unfinished group after resume.
+     *
+     * @param predicate BooleanExpression
+     * @param action    action applied to each entity
+     * @param options   chunk size, parallelism and checkpoints
+     * @return count of processed entities and chunks
+     */
+    ProcessResult process(BooleanExpression predicate, Consumer<Entity> action, ProcessOptions options);
+
     /**
      * Get filtered and ordered page of entities
      *
@@ -42,6 +140,55 @@ public interface CrudService<Entity> {
      */
     Page<Entity> page(BooleanExpression predicate, List<Order> orders, int page, int size);
 
+    /**
+     * Get filtered and ordered page of projections of entities
+     *
+     * @param projection QueryDSL expression over entity path
+     * @param predicate  BooleanExpression
+     * @param orders     list of OrderBy
+     * @param page       page number
+     * @param size       page size
+     * @return page of projections
+     */
+    <P> Page<P> page(Expression<P> projection, BooleanExpression predicate, List<Order> orders, int page, int size);
+
+    /**
+     * Get filtered and ordered page of DTOs
+     *
+     * @param type      class of DTO
+     * @param predicate BooleanExpression
+     * @param orders    list of OrderBy
+     * @param page      page number
+     * @param size      page size
+     * @return page of DTOs
+     */
+    <P> Page<P> page(Class<P> type, BooleanExpression predicate, List<Order> orders, int page, int size);
+
+    /**
+     * Get filtered and ordered slice of entities without count query
+     *
+     * @param predicate BooleanExpression
+     * @param orders    list of OrderBy
+     * @param page      page number
+     * @param size      page size
+     * @return slice of entities
+     */
+    Slice<Entity> slice(BooleanExpression predicate, List<Order> orders, int page, int size);
+
+    /**
+     * Get filtered and ordered page of entities after the last entity of previous page.
+     * Entity id is used as the last sort order, sort properties should not be null.
+     *
+     * @param predicate BooleanExpression
+     * @param orders    list of OrderBy
+     * @param token     token of previous page, null for the first page
+     * @param size      page size
+     * @param withCount count total filtered entities
+     * @return page of entities with token of the next page
+     */
+    KeysetPage<Entity> keysetPage(BooleanExpression predicate, List<Order> orders, String token, int size,
+                                  boolean withCount);
+
     /**
      * Create/update entity
      *
@@ -58,6 +205,27 @@ public interface CrudService<Entity> {
      */
     List<Entity> save(Iterable<Entity> entities);
 
+    /**
+     * Create/update list of entities with JDBC batches.
+     * New entities are persisted without merge, persistence context is flushed and cleared
+     * after each batch, so returned entities are detached.
+     *
+     * @param entities list of entities
+     * @return list of saved entities
+     */
+    List<Entity> saveInBatch(Iterable<Entity> entities);
+
+    /**
+     * Apply partial changes to entities with batched versioned update statements.
+     * Entities with other version are not updated and returned as conflicted to be reloaded and retried.
+     * Entities the driver reported no row count for are returned as unknown.
+     * Persistence context is flushed before and cleared after updates.
+     *
+     * @param updates changes of entities with expected versions
+     * @return ids of updated, conflicted and unknown entities
+     */
+    UpdateResult updateInBatch(Iterable<VersionedUpdate> updates);
+
     /**
      * Delete entity to archive
      *
@@ -109,6 +277,14 @@ public interface CrudService<Entity> {
      */
     void softDeleteAll(Iterable<UUID> ids);
 
+    /**
+     * Delete entities to archive with chunked update statements
+     *
+     * @param ids list of entities ids
+     * @return ids of deleted to archive and not found entities
+     */
+    BatchResult softDeleteAllInBatch(Iterable<UUID> ids);
+
     /**
      * Delete entities
      *
@@ -124,4 +300,12 @@ public interface CrudService<Entity> {
      */
     boolean exists(UUID id);
 
+    /**
+     * Get ids of existing entities
+     *
+     * @param ids ids of entities to check
+     * @return set of existing ids
+     */
+    Set<UUID> existing(Iterable<UUID> ids);
+
 }
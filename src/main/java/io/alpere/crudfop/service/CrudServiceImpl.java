@@ -1,32 +1,106 @@
 package io.alpere.crudfop.service;
 
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import io.alpere.crudfop.audit.AuditContext;
 import io.alpere.crudfop.audit.AuditProvider;
+import io.alpere.crudfop.cache.CompiledQuery;
+import io.alpere.crudfop.cache.CountCache;
+import io.alpere.crudfop.cache.EntityCache;
+import io.alpere.crudfop.cache.QueryCache;
+import io.alpere.crudfop.change.ChangeListener;
+import io.alpere.crudfop.change.ChangeType;
 import io.alpere.crudfop.model.BaseEntity;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import io.alpere.crudfop.exception.EntityNotExistsException;
 import io.alpere.crudfop.repository.BaseRepository;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
 @Slf4j
 @Getter
 public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<Entity> {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
     protected final BaseRepository<Entity> repository;
     private final AuditProvider auditorAware;
     protected final Class<?> entityClass;
+    protected final EntityPath<Entity> entityPath;
+    private final ConcurrentMap<Class<?>, Expression<?>> dtoProjections = new ConcurrentHashMap<>();
+    @PersistenceContext
+    protected EntityManager entityManager;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    @Setter
+    private CountCache countCache;
+    @Setter
+    private EntityCache entityCache;
+    /**
+     * Cache of compiled queries of find all and page by predicate shape
+     */
+    @Setter
+    private QueryCache queryCache;
+    /**
+     * Listener of changes called in transaction of change, e.g. outbox
+     */
+    @Setter
+    private ChangeListener changeListener;
+    private PlatformTransactionManager transactionManager;
+    /**
+     * Restrict queries to not deleted entities
+     */
+    @Setter
+    private boolean scoped = true;
 
     public CrudServiceImpl(BaseRepository<Entity> repository, AuditProvider auditorAware, Class<?> entityClass)
             throws Exception {
@@ -36,61 +110,344 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
         this.repository = repository;
         this.auditorAware = auditorAware;
         this.entityClass = entityClass;
+        this.entityPath = EntityQueries.entityPath(entityClass);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public Entity findOne(UUID id) {
         notNull(id);
-        return repository.findById(id)
+        if (entityCache == null) {
+            return repository.findById(id)
+                    .orElseThrow(() -> new EntityNotExistsException(entityClass.getSimpleName(), id));
+        }
+        Entity entity = entityCache.get(entityClass, id);
+        if (entity != null) {
+            return entity;
+        }
+        long loadStartedAt = System.nanoTime();
+        entity = repository.findById(id)
                 .orElseThrow(() -> new EntityNotExistsException(entityClass.getSimpleName(), id));
+        putAfterCommit(entity, loadStartedAt);
+        return entity;
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Entity> findAll() {
-        return repository.findAll();
+        if (!scoped) {
+            return repository.findAll();
+        }
+        return findAllBy(scope(null));
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Entity> findAll(BooleanExpression predicate) {
         if (predicate != null) {
-            return newArrayList(repository.findAll(predicate));
+            return findAllBy(scope(predicate));
         }
         return findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Entity> findAllById(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        Set<UUID> unique = new LinkedHashSet<>();
+        ids.forEach(unique::add);
+        List<Entity> result = new ArrayList<>();
+        List<UUID> notCached = new ArrayList<>();
+        for (UUID id : unique) {
+            Entity entity = entityCache == null ? null : entityCache.get(entityClass, id);
+            if (entity != null) {
+                result.add(entity);
+            } else {
+                notCached.add(id);
+            }
+        }
+        long loadStartedAt = System.nanoTime();
+        for (List<UUID> chunk : Batches.partition(notCached, batchSize)) {
+            for (Entity entity : repository.findAllById(chunk)) {
+                result.add(entity);
+                if (entityCache != null) {
+                    putAfterCommit(entity, loadStartedAt);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<Entity> stream() {
+        return stream(null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<Entity> stream(BooleanExpression predicate) {
+        return EntityQueries.stream(EntityQueries.selectFrom(entityManager, entityPath, scope(predicate)), fetchSize,
+                true)
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <P> List<P> findAll(Expression<P> projection, BooleanExpression predicate, List<Order> orders) {
+        notNullProjection(projection);
+        JPAQuery<P> query = EntityQueries.select(entityManager, entityPath, projection, scope(predicate));
+        query.setHint(QueryHints.HINT_READONLY, true);
+        return querydsl().applySorting(Sort.by(orders), query).fetch();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <P> List<P> findAll(Class<P> type, BooleanExpression predicate, List<Order> orders) {
+        return findAll(dto(type), predicate, orders);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public <P> Stream<P> stream(Expression<P> projection, BooleanExpression predicate) {
+        notNullProjection(projection);
+        return EntityQueries.stream(EntityQueries.select(entityManager, entityPath, projection, scope(predicate)),
+                fetchSize, true);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public <P> Stream<P> stream(Class<P> type, BooleanExpression predicate) {
+        return stream(dto(type), predicate);
+    }
+
+    @Override
+    @Transactional
+    public void forEach(Consumer<Entity> action) {
+        forEach(null, action);
+    }
+
     @Override
     @Transactional
+    public void forEach(BooleanExpression predicate, Consumer<Entity> action) {
+        notNullAction(action);
+        try (Stream<Entity> entities = EntityQueries.stream(
+                EntityQueries.selectFrom(entityManager, entityPath, scope(predicate)), fetchSize, false)) {
+            Iterator<Entity> iterator = entities.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % fetchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    public ProcessResult process(BooleanExpression predicate, Consumer<Entity> action, ProcessOptions options) {
+        notNullAction(action);
+        Objects.requireNonNull(options, "Process options should not be null.");
+        Objects.requireNonNull(transactionManager, "Transaction manager should be set for processing.");
+        if (options.getChunkSize() < 1 || options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Chunk size and parallelism should be positive.");
+        }
+        TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        TransactionTemplate writeTemplate = new TransactionTemplate(transactionManager);
+
+        UUID lastId = options.isResumable() ? options.getCheckpointStore().load(options.getJobName()) : null;
+        long processed = 0;
+        long chunks = 0;
+        CrudTaskExecutor executor = options.getExecutor();
+        boolean hasNext = true;
+        while (hasNext) {
+            List<List<UUID>> group = new ArrayList<>();
+            UUID groupLastId = lastId;
+            while (hasNext && group.size() < options.getParallelism()) {
+                List<UUID> ids = nextIds(readTemplate, scope(predicate), groupLastId, options.getChunkSize());
+                hasNext = ids.size() == options.getChunkSize();
+                if (!ids.isEmpty()) {
+                    group.add(ids);
+                    groupLastId = ids.get(ids.size() - 1);
+                }
+            }
+
+            if (executor == null) {
+                for (List<UUID> ids : group) {
+                    processed += processChunk(writeTemplate, ids, action);
+                }
+            } else {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (List<UUID> ids : group) {
+                    results.add(executor.write(() -> processChunk(ids, action)));
+                }
+                for (Future<Integer> result : results) {
+                    processed += await(result);
+                }
+            }
+            chunks += group.size();
+            lastId = groupLastId;
+            if (options.isResumable() && lastId != null) {
+                options.getCheckpointStore().save(options.getJobName(), lastId);
+            }
+        }
+        if (options.isResumable()) {
+            options.getCheckpointStore().clear(options.getJobName());
+        }
+        return new ProcessResult(processed, chunks, lastId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<Entity> page(BooleanExpression predicate, List<Order> orders, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
 
         if (predicate == null) {
-            return repository.findAll(pageable);
+            return findPage(scope(null), pageable);
         }
 
-        Page<Entity> tempPage = repository.findAll(predicate, pageable);
+        Page<Entity> tempPage = findPage(scope(predicate), pageable);
         if (tempPage.getContent().isEmpty() && tempPage.getTotalElements() > 0) {
             pageable = PageRequest.of(0, size, Sort.by(orders));
-            return  repository.findAll(predicate, pageable);
+            return  findPage(scope(predicate), pageable);
         }
 
         return tempPage;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public <P> Page<P> page(Expression<P> projection, BooleanExpression predicate, List<Order> orders, int page,
+                            int size) {
+        notNullProjection(projection);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
+        BooleanExpression filter = scope(predicate);
+        JPAQuery<P> query = EntityQueries.select(entityManager, entityPath, projection, filter);
+        query.setHint(QueryHints.HINT_READONLY, true);
+        List<P> content = querydsl().applyPagination(pageable, query).fetch();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(filter));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <P> Page<P> page(Class<P> type, BooleanExpression predicate, List<Order> orders, int page, int size) {
+        return page(dto(type), predicate, orders, page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Entity> slice(BooleanExpression predicate, List<Order> orders, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(orders));
+        JPAQuery<Entity> query = EntityQueries.selectFrom(entityManager, entityPath, scope(predicate));
+        List<Entity> content = querydsl().applySorting(pageable.getSort(), query)
+                .offset(pageable.getOffset())
+                .limit(size + 1L)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Entity> keysetPage(BooleanExpression predicate, List<Order> orders, String token, int size,
+                                         boolean withCount) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one!");
+        }
+        Keyset keyset = new Keyset(entityClass, entityPath, orders);
+        JPAQuery<Entity> query = EntityQueries.selectFrom(entityManager, entityPath, scope(predicate));
+        if (token != null) {
+            query.where(keyset.after(token));
+        }
+        List<Entity> content = query.orderBy(keyset.orderSpecifiers())
+                .limit(size + 1L)
+                .fetch();
+
+        String nextToken = null;
+        if (content.size() > size) {
+            content = new ArrayList<>(content.subList(0, size));
+            nextToken = keyset.token(content.get(size - 1));
+        }
+        Long totalElements = null;
+        if (withCount) {
+            totalElements = count(scope(predicate));
+        }
+        return new KeysetPage<>(content, nextToken, totalElements);
+    }
+
     @Override
     @Transactional
     public Entity save(Entity entity) {
         notNull(entity);
-        return repository.save(entity);
+        invalidate(entity.getId());
+        Entity saved = repository.save(entity);
+        changed(ChangeType.SAVED, saved);
+        return saved;
     }
 
     @Override
     @Transactional
     public List<Entity> save(Iterable<Entity> entities) {
         notNull(entities);
-        return repository.saveAll(entities);
+        invalidate(ids(entities));
+        List<Entity> saved = repository.saveAll(entities);
+        saved.forEach(entity -> changed(ChangeType.SAVED, entity));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Entity> saveInBatch(Iterable<Entity> entities) {
+        notNull(entities);
+        Session session = entityManager.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            invalidate(ids(entities));
+            List<Entity> result = new ArrayList<>();
+            long count = 0;
+            for (Entity entity : entities) {
+                Entity saved = entity;
+                if (entity.getUpdatedAt() == null) {
+                    entityManager.persist(entity);
+                } else {
+                    saved = entityManager.merge(entity);
+                }
+                changed(ChangeType.SAVED, saved);
+                result.add(saved);
+                if (++count % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return result;
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+    }
+
+    @Override
+    @Transactional
+    public UpdateResult updateInBatch(Iterable<VersionedUpdate> updates) {
+        String message = String.format("Updates for [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(updates, message);
+        List<UUID> ids = new ArrayList<>();
+        updates.forEach(update -> ids.add(Objects.requireNonNull(update, message).getId()));
+        invalidate(ids);
+        UpdateResult result = VersionedUpdates.execute(entityManager, entityClass, updates, user(), scoped,
+                batchSize);
+        changed(ChangeType.SAVED, result.getUpdated());
+        changed(ChangeType.SAVED, result.getUnknown());
+        return result;
     }
 
     @Override
@@ -98,9 +455,11 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
     public Entity softDelete(Entity entity) {
         notNull(entity);
         if (exists(entity.getId())) {
+            invalidate(entity.getId());
             entity.setDeletedAt(Instant.now());
             entity.setDeletedBy(user());
             repository.save(entity);
+            changed(ChangeType.SOFT_DELETED, entity);
         }
         return entity;
     }
@@ -109,7 +468,9 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
     @Transactional
     public void delete(Entity entity) {
         notNull(entity);
+        invalidate(entity.getId());
         repository.delete(entity);
+        changed(ChangeType.DELETED, entity);
     }
 
     @Override
@@ -122,20 +483,36 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
     @Transactional
     public void delete(UUID id) {
         notNull(id);
+        invalidate(id);
         repository.deleteById(id);
+        changed(ChangeType.DELETED, Collections.singletonList(id));
     }
 
     @Override
     @Transactional
     public void softDelete(Iterable<Entity> entities) {
-        entities.forEach(this::softDelete);
+        notNull(entities);
+        Set<UUID> existingIds = existing(ids(entities));
+        Instant deletedAt = Instant.now();
+        String deletedBy = user();
+        invalidate(existingIds);
+        for (Entity entity : entities) {
+            if (existingIds.contains(entity.getId())) {
+                entity.setDeletedAt(deletedAt);
+                entity.setDeletedBy(deletedBy);
+                repository.save(entity);
+                changed(ChangeType.SOFT_DELETED, entity);
+            }
+        }
     }
 
     @Override
     @Transactional
     public void delete(Iterable<Entity> entities) {
         notNull(entities);
+        invalidate(ids(entities));
         repository.deleteAll(entities);
+        entities.forEach(entity -> changed(ChangeType.DELETED, entity));
     }
 
     @Override
@@ -145,6 +522,32 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
         ids.forEach(this::softDelete);
     }
 
+    @Override
+    @Transactional
+    public BatchResult softDeleteAllInBatch(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        Instant deletedAt = Instant.now();
+        String deletedBy = user();
+        List<UUID> affected = new ArrayList<>();
+        List<UUID> missing = new ArrayList<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            List<UUID> liveIds = repository.findLiveIds(chunk);
+            invalidate(liveIds);
+            if (!liveIds.isEmpty()) {
+                if (VersionedUpdates.isLongVersioned(entityClass)) {
+                    VersionedUpdates.softDelete(entityManager, entityClass, liveIds, deletedAt, deletedBy);
+                } else {
+                    repository.softDeleteAllById(liveIds, deletedAt, deletedBy);
+                }
+                changed(ChangeType.SOFT_DELETED, liveIds);
+            }
+            affected.addAll(liveIds);
+            missing.addAll(Batches.missing(chunk, liveIds));
+        }
+        return new BatchResult(affected, missing);
+    }
+
     @Override
     @Transactional
     public void deleteAll(Iterable<UUID> ids) {
@@ -152,9 +555,318 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
         ids.forEach(this::delete);
     }
 
+    @Override
+    @Transactional(readOnly = true)
     public boolean exists(UUID id) {
         notNull(id);
-        return repository.findById(id).isPresent();
+        if (entityCache != null && entityCache.contains(entityClass, id)) {
+            return true;
+        }
+        return repository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<UUID> existing(Iterable<UUID> ids) {
+        notNullIds(ids);
+        ids.forEach(this::notNull);
+        Set<UUID> result = new HashSet<>();
+        for (List<UUID> chunk : Batches.partition(ids, batchSize)) {
+            result.addAll(repository.findExistingIds(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * Set max count of ids in one statement of batch operations
+     *
+     * @param batchSize max count of ids
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set transaction manager used by chunked processing
+     *
+     * @param transactionManager transaction manager
+     */
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Set count of rows fetched at once by streaming methods.
+     * Persistence context is cleared after each fetched portion.
+     *
+     * @param fetchSize count of rows
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size should be positive.");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    private List<UUID> nextIds(TransactionTemplate template, BooleanExpression predicate, UUID lastId, int size) {
+        return template.execute(status -> {
+            ComparablePath<UUID> id = new PathBuilder<>(entityPath.getType(), entityPath.getMetadata())
+                    .getComparable("id", UUID.class);
+            JPAQuery<UUID> query = new JPAQuery<UUID>(entityManager).select(id).from(entityPath);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+            if (lastId != null) {
+                query.where(id.gt(lastId));
+            }
+            return query.orderBy(id.asc())
+                    .limit(size)
+                    .fetch();
+        });
+    }
+
+    private int processChunk(TransactionTemplate template, List<UUID> ids, Consumer<Entity> action) {
+        Integer count = template.execute(status -> processChunk(ids, action));
+        return count == null ? 0 : count;
+    }
+
+    private int processChunk(List<UUID> ids, Consumer<Entity> action) {
+        List<Entity> entities = repository.findAllById(ids);
+        entities.forEach(action);
+        return entities.size();
+    }
+
+    private int await(Future<Integer> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Processing of " + entityClass.getSimpleName() + " was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Processing of " + entityClass.getSimpleName() + " failed.", e.getCause());
+        }
+    }
+
+    private BooleanExpression scope(BooleanExpression predicate) {
+        if (!scoped) {
+            return predicate;
+        }
+        BooleanExpression live = EntityQueries.deletedAt(entityPath).isNull();
+        return predicate == null ? live : live.and(predicate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P> Expression<P> dto(Class<P> type) {
+        String message = String.format("DTO class for [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(type, message);
+        return (Expression<P>) dtoProjections.computeIfAbsent(type, key -> EntityQueries.dto(entityPath, key));
+    }
+
+    private List<Entity> findAllBy(BooleanExpression predicate) {
+        PredicateShape shape = shape(predicate);
+        CompiledQuery compiled = compiled(shape, Sort.unsorted());
+        if (compiled == null) {
+            return newArrayList(repository.findAll(predicate));
+        }
+        return bind(entityManager.createQuery(compiled.getJpql(), entityType()), compiled.getPositions(), shape)
+                .getResultList();
+    }
+
+    private Page<Entity> findPage(BooleanExpression predicate, Pageable pageable) {
+        PredicateShape shape = shape(predicate);
+        CompiledQuery compiled = compiled(shape, pageable.getSort());
+        if (compiled == null) {
+            JPAQuery<Entity> query = EntityQueries.selectFrom(entityManager, entityPath, predicate);
+            List<Entity> content = querydsl().applyPagination(pageable, query).fetch();
+            return PageableExecutionUtils.getPage(content, pageable, () -> count(predicate));
+        }
+        List<Entity> content = bind(entityManager.createQuery(compiled.getJpql(), entityType()),
+                compiled.getPositions(), shape)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(predicate, () -> bind(
+                entityManager.createQuery(compiled.getCountJpql(), Long.class), compiled.getCountPositions(), shape)
+                .getSingleResult()));
+    }
+
+    private long count(BooleanExpression predicate) {
+        return count(predicate, () -> predicate == null ? repository.count() : repository.count(predicate));
+    }
+
+    private long count(BooleanExpression predicate, LongSupplier counter) {
+        if (countCache == null) {
+            return counter.getAsLong();
+        }
+        return countCache.get(entityClass, predicate, counter);
+    }
+
+    /**
+     * Normalize predicate to shape, null if query cache is not set or predicate is not cacheable
+     */
+    private PredicateShape shape(BooleanExpression predicate) {
+        if (queryCache == null || predicate == null) {
+            return null;
+        }
+        PredicateShape shape = PredicateShape.of(predicate);
+        if (!shape.isCacheable()) {
+            queryCache.markUncacheable();
+            return null;
+        }
+        return shape;
+    }
+
+    private CompiledQuery compiled(PredicateShape shape, Sort sort) {
+        if (shape == null) {
+            return null;
+        }
+        CompiledQuery compiled = queryCache.get(entityClass, shape.getKey() + '|' + sort, () -> compile(shape, sort));
+        return compiled.isCacheable() ? compiled : null;
+    }
+
+    private CompiledQuery compile(PredicateShape shape, Sort sort) {
+        JPAQuery<Entity> query = EntityQueries.selectFrom(entityManager, entityPath, shape.getPredicate());
+        querydsl().applySorting(sort, query);
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(entityManager), entityManager);
+        serializer.serialize(query.getMetadata(), false, null);
+        JPQLSerializer countSerializer = new JPQLSerializer(JPAProvider.getTemplates(entityManager), entityManager);
+        countSerializer.serialize(query.getMetadata(), true, null);
+        int[] positions = positions(shape, serializer.getConstantToLabel());
+        int[] countPositions = positions(shape, countSerializer.getConstantToLabel());
+        if (positions == null || countPositions == null) {
+            return CompiledQuery.UNCACHEABLE;
+        }
+        return new CompiledQuery(serializer.toString(), positions, countSerializer.toString(), countPositions);
+    }
+
+    /**
+     * Get positions of parameters of shape constants, null if serializer changed or inlined constants
+     */
+    private int[] positions(PredicateShape shape, Map<Object, String> labels) {
+        List<Object> constants = shape.getConstants();
+        if (labels.size() != constants.size()) {
+            return null;
+        }
+        int[] positions = new int[constants.size()];
+        for (int i = 0; i < positions.length; i++) {
+            String label = labels.get(constants.get(i));
+            if (label == null || label.isEmpty() || !label.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            positions[i] = Integer.parseInt(label);
+        }
+        return positions;
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query, int[] positions, PredicateShape shape) {
+        List<Object> constants = shape.getConstants();
+        for (int i = 0; i < positions.length; i++) {
+            query.setParameter(positions[i], constants.get(i));
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<Entity> entityType() {
+        return (Class<Entity>) entityPath.getType();
+    }
+
+    private void invalidate(UUID id) {
+        invalidate(id == null ? Collections.emptyList() : Collections.singletonList(id));
+    }
+
+    /**
+     * Invalidate count cache once and evict entities now and again after completion of transaction
+     */
+    private void invalidate(Collection<UUID> ids) {
+        if (countCache != null) {
+            countCache.invalidate(entityClass);
+        }
+        if (entityCache != null) {
+            ids.stream().filter(Objects::nonNull).forEach(id -> entityCache.evict(entityClass, id));
+        }
+        boolean cached = countCache != null || entityCache != null;
+        if (cached && TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidated().addAll(ids);
+        }
+    }
+
+    private void changed(ChangeType type, Entity entity) {
+        if (changeListener != null) {
+            changeListener.onChange(type, entityClass, entity.getId(), entity);
+        }
+    }
+
+    private void changed(ChangeType type, Collection<UUID> ids) {
+        if (changeListener != null) {
+            ids.forEach(id -> changeListener.onChange(type, entityClass, id, null));
+        }
+    }
+
+    private void putAfterCommit(Entity entity, long loadStartedAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityCache.put(entityClass, entity, loadStartedAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityCache.put(entityClass, entity, loadStartedAt);
+            }
+        });
+    }
+
+    /**
+     * Get ids invalidated in current transaction, the first invalidation binds them and registers
+     * one synchronization invalidating caches again after commit and completion
+     */
+    @SuppressWarnings("unchecked")
+    private Set<UUID> invalidated() {
+        Set<UUID> bound = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+        Set<UUID> ids = new HashSet<>();
+        Object key = this;
+        TransactionSynchronizationManager.bindResource(key, ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(key, ids);
+            }
+
+            @Override
+            public void afterCommit() {
+                if (countCache != null) {
+                    countCache.invalidate(entityClass);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                if (entityCache != null) {
+                    ids.stream().filter(Objects::nonNull).forEach(id -> entityCache.evict(entityClass, id));
+                }
+            }
+        });
+        return ids;
+    }
+
+    private Querydsl querydsl() {
+        return new Querydsl(entityManager, new PathBuilder<>(entityPath.getType(), entityPath.getMetadata()));
     }
 
     private boolean isBaseEntity(Class entityClass) {
@@ -182,8 +894,24 @@ public class CrudServiceImpl<Entity extends BaseEntity> implements CrudService<E
         entities.forEach(this::notNull);
     }
 
+    private void notNullProjection(Expression<?> projection) {
+        String message = String.format("Projection for [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(projection, message);
+    }
+
+    private void notNullAction(Consumer<Entity> action) {
+        String message = String.format("Action for [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(action, message);
+    }
+
+    private List<UUID> ids(Iterable<Entity> entities) {
+        return StreamSupport.stream(entities.spliterator(), false)
+                .map(BaseEntity::getId)
+                .collect(Collectors.toList());
+    }
+
     private String user() {
-        String user = auditorAware.user();
+        String user = AuditContext.resolve(auditorAware).getUser();
         return user.isEmpty() ? "unknown user" : user;
     }
 
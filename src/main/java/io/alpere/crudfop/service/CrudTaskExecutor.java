@@ -0,0 +1,108 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.audit.AuditContext;
+import io.alpere.crudfop.audit.AuditProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor of service calls on worker threads. Each task runs in its own transaction
+ * with audit context of the submitting thread. Count of running tasks is limited,
+ * the limit should match the connection pool of datasource.
+ */
+@Slf4j
+public class CrudTaskExecutor implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AuditProvider auditorAware;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+
+    public CrudTaskExecutor(PlatformTransactionManager transactionManager, AuditProvider auditorAware,
+                            int maxConcurrency) {
+        this(newExecutor(maxConcurrency), transactionManager, auditorAware, maxConcurrency);
+    }
+
+    public CrudTaskExecutor(ExecutorService executor, PlatformTransactionManager transactionManager,
+                            AuditProvider auditorAware, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency should be positive.");
+        }
+        this.executor = Objects.requireNonNull(executor, "Executor should not be null.");
+        this.permits = new Semaphore(maxConcurrency);
+        this.auditorAware = Objects.requireNonNull(auditorAware, "Audit provider should not be null.");
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Run read only task in transaction on worker thread
+     *
+     * @param task task
+     * @return future of task result
+     */
+    public <T> CompletableFuture<T> read(Supplier<T> task) {
+        return submit(readTemplate, task);
+    }
+
+    /**
+     * Run task in transaction on worker thread
+     *
+     * @param task task
+     * @return future of task result
+     */
+    public <T> CompletableFuture<T> write(Supplier<T> task) {
+        return submit(writeTemplate, task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(TransactionTemplate template, Supplier<T> task) {
+        AuditContext context = AuditContext.capture(auditorAware);
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return context.call(() -> template.execute(status -> task.get()));
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Create executor with virtual threads if JDK supports them, otherwise fixed pool of daemon threads
+     *
+     * @param poolSize size of fixed pool
+     * @return executor
+     */
+    private static ExecutorService newExecutor(int poolSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not supported, fixed thread pool is used.");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "crudfop-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(poolSize, threadFactory);
+    }
+}
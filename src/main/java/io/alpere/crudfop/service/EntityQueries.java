@@ -0,0 +1,120 @@
+package io.alpere.crudfop.service;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class EntityQueries {
+
+    private EntityQueries() {
+    }
+
+    /**
+     * Get QueryDSL path of entity class
+     *
+     * @param entityClass class of entity
+     * @return entity path
+     */
+    static <T> EntityPath<T> entityPath(Class<?> entityClass) {
+        return SimpleEntityPathResolver.INSTANCE.createPath((Class<T>) entityClass);
+    }
+
+    /**
+     * Get path of deletion time of entity
+     *
+     * @param path entity path
+     * @return deleted at path
+     */
+    static DateTimePath<Instant> deletedAt(EntityPath<?> path) {
+        return new PathBuilder<>(path.getType(), path.getMetadata()).getDateTime("deletedAt", Instant.class);
+    }
+
+    /**
+     * Get projection of entity properties to fields of DTO with the same names
+     *
+     * @param path entity path
+     * @param type class of DTO
+     * @return DTO projection
+     */
+    static <P> Expression<P> dto(EntityPath<?> path, Class<P> type) {
+        PathBuilder<?> builder = new PathBuilder<>(path.getType(), path.getMetadata());
+        Map<String, Expression<?>> bindings = new LinkedHashMap<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                    bindings.putIfAbsent(field.getName(), builder.get(field.getName(), field.getType()));
+                }
+            }
+        }
+        if (bindings.isEmpty()) {
+            throw new IllegalArgumentException("DTO " + type.getSimpleName() + " has no fields.");
+        }
+        return Projections.fields(type, bindings);
+    }
+
+    /**
+     * Create select query of projections
+     *
+     * @param entityManager entity manager
+     * @param path          entity path
+     * @param projection    projection over entity path
+     * @param predicate     filter, may be null
+     * @return query of projections
+     */
+    static <P> JPAQuery<P> select(EntityManager entityManager, EntityPath<?> path, Expression<P> projection,
+                                  Predicate predicate) {
+        JPAQuery<P> query = new JPAQuery<P>(entityManager).select(projection).from(path);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return query;
+    }
+
+    /**
+     * Create select query of entities
+     *
+     * @param entityManager entity manager
+     * @param path          entity path
+     * @param predicate     filter, may be null
+     * @return query of entities
+     */
+    static <T> JPAQuery<T> selectFrom(EntityManager entityManager, EntityPath<T> path, Predicate predicate) {
+        JPAQuery<T> query = new JPAQuery<T>(entityManager).select(path).from(path);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return query;
+    }
+
+    /**
+     * Open server side cursor over query results
+     *
+     * @param query     query
+     * @param fetchSize count of rows fetched from database at once
+     * @param readOnly  load entities without snapshots for dirty checking
+     * @return stream of results, should be closed after use
+     */
+    static <T> Stream<T> stream(JPAQuery<T> query, int fetchSize, boolean readOnly) {
+        Query jpaQuery = query.createQuery();
+        jpaQuery.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize);
+        jpaQuery.setHint(QueryHints.HINT_READONLY, readOnly);
+        return jpaQuery.getResultStream();
+    }
+}
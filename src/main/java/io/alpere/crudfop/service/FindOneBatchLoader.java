@@ -0,0 +1,144 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.exception.EntityNotExistsException;
+import io.alpere.crudfop.model.BaseEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent find one requests. Ids requested within a time window or until max batch size is reached
+ * are loaded with one {@link CrudService#findAllById(Iterable)} call, callers of the same id share one future.
+ * Service should be the proxied bean, so loads go through its transaction, entity cache and aspects.
+ */
+@Slf4j
+public class FindOneBatchLoader<Entity extends BaseEntity> {
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(2);
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private final CrudService<Entity> service;
+    private final Class<?> entityClass;
+    private final ScheduledExecutorService scheduler;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ConcurrentMap<UUID, CompletableFuture<Entity>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<UUID> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    public FindOneBatchLoader(CrudService<Entity> service, Class<?> entityClass, ScheduledExecutorService scheduler) {
+        this(service, entityClass, scheduler, DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public FindOneBatchLoader(CrudService<Entity> service, Class<?> entityClass, ScheduledExecutorService scheduler,
+                              Duration window, int maxBatchSize) {
+        if (maxBatchSize < 1 || window.isNegative()) {
+            throw new IllegalArgumentException("Max batch size should be positive and window not negative.");
+        }
+        this.service = service;
+        this.entityClass = entityClass;
+        this.scheduler = scheduler;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Get one entity by id. Future fails with {@link EntityNotExistsException} if entity doesn't exist.
+     *
+     * @param id UUID of entity
+     * @return future of entity
+     */
+    public CompletableFuture<Entity> load(UUID id) {
+        String message = String.format("Id for [%s] should not be null.", entityClass.getSimpleName());
+        Objects.requireNonNull(id, message);
+
+        CompletableFuture<Entity> future = new CompletableFuture<>();
+        CompletableFuture<Entity> inFlight = pending.putIfAbsent(id, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        queue.add(id);
+        queued.incrementAndGet();
+        schedule();
+        return future;
+    }
+
+    private void dispatchWindow() {
+        scheduled.set(false);
+        dispatch();
+        schedule();
+    }
+
+    private void dispatchFull() {
+        dispatching.set(false);
+        dispatch();
+        schedule();
+    }
+
+    // at most one full batch dispatch and one window dispatch are waiting in scheduler at a time
+    private void schedule() {
+        int count = queued.get();
+        if (count >= maxBatchSize) {
+            if (dispatching.compareAndSet(false, true)) {
+                scheduler.execute(this::dispatchFull);
+            }
+        } else if (count > 0 && scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::dispatchWindow, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void dispatch() {
+        List<UUID> ids = new ArrayList<>(maxBatchSize);
+        UUID id;
+        while (ids.size() < maxBatchSize && (id = queue.poll()) != null) {
+            queued.decrementAndGet();
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<UUID, Entity> entities = new HashMap<>();
+            service.findAllById(ids).forEach(entity -> entities.put(entity.getId(), entity));
+            for (UUID loadedId : ids) {
+                Entity entity = entities.get(loadedId);
+                if (entity == null) {
+                    complete(loadedId, null, new EntityNotExistsException(entityClass.getSimpleName(), loadedId));
+                } else {
+                    complete(loadedId, entity, null);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Batch loading of {} failed.", entityClass.getSimpleName(), e);
+            ids.forEach(failedId -> complete(failedId, null, e));
+        }
+    }
+
+    private void complete(UUID id, Entity entity, RuntimeException exception) {
+        CompletableFuture<Entity> future = pending.remove(id);
+        if (future == null) {
+            return;
+        }
+        if (exception == null) {
+            future.complete(entity);
+        } else {
+            future.completeExceptionally(exception);
+        }
+    }
+}
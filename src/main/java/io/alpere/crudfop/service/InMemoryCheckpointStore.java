@@ -0,0 +1,25 @@
+package io.alpere.crudfop.service;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final ConcurrentMap<String, UUID> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public UUID load(String jobName) {
+        return checkpoints.get(jobName);
+    }
+
+    @Override
+    public void save(String jobName, UUID lastId) {
+        checkpoints.put(jobName, lastId);
+    }
+
+    @Override
+    public void clear(String jobName) {
+        checkpoints.remove(jobName);
+    }
+}
@@ -0,0 +1,147 @@
+package io.alpere.crudfop.service;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparablePath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Seek condition over sort properties of entity with id as the last tie breaker
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class Keyset {
+
+    private static final String ID = "id";
+
+    private static final ConversionService CONVERSION = new DefaultFormattingConversionService();
+
+    private final PathBuilder<?> builder;
+    private final List<String> properties = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private final List<Boolean> ascending = new ArrayList<>();
+
+    Keyset(Class<?> entityClass, EntityPath<?> path, List<Order> orders) {
+        this.builder = new PathBuilder<>(path.getType(), path.getMetadata());
+        boolean lastAscending = true;
+        for (Order order : orders) {
+            if (!ID.equals(order.getProperty())) {
+                add(entityClass, order.getProperty(), order.isAscending());
+            }
+            lastAscending = order.isAscending();
+        }
+        add(entityClass, ID, lastAscending);
+    }
+
+    /**
+     * Get order of keyset properties
+     *
+     * @return order specifiers
+     */
+    OrderSpecifier<?>[] orderSpecifiers() {
+        OrderSpecifier<?>[] result = new OrderSpecifier<?>[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            com.querydsl.core.types.Order direction = ascending.get(i)
+                    ? com.querydsl.core.types.Order.ASC
+                    : com.querydsl.core.types.Order.DESC;
+            result[i] = new OrderSpecifier(direction, path(i));
+        }
+        return result;
+    }
+
+    /**
+     * Get condition selecting rows after the row encoded in token
+     *
+     * @param token continuation token
+     * @return seek condition
+     */
+    BooleanExpression after(String token) {
+        List<Object> values = decode(token);
+        BooleanExpression result = null;
+        BooleanExpression equalPrefix = null;
+        for (int i = 0; i < properties.size(); i++) {
+            ComparablePath path = path(i);
+            Comparable value = (Comparable) values.get(i);
+            BooleanExpression step = ascending.get(i) ? path.gt(value) : path.lt(value);
+            if (equalPrefix != null) {
+                step = equalPrefix.and(step);
+            }
+            result = result == null ? step : result.or(step);
+            BooleanExpression equal = path.eq(value);
+            equalPrefix = equalPrefix == null ? equal : equalPrefix.and(equal);
+        }
+        return result;
+    }
+
+    /**
+     * Encode keyset values of entity to continuation token
+     *
+     * @param entity last entity of page
+     * @return continuation token
+     */
+    String token(Object entity) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(signature());
+            for (String property : properties) {
+                Object value = wrapper.getPropertyValue(property);
+                if (value == null) {
+                    throw new IllegalArgumentException(
+                            String.format("Keyset sort property [%s] should not be null.", property));
+                }
+                out.writeUTF(CONVERSION.convert(value, String.class));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private List<Object> decode(String token) {
+        List<Object> values = new ArrayList<>(properties.size());
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readInt() != signature()) {
+                throw new IllegalArgumentException("Continuation token does not match sort orders.");
+            }
+            for (Class<?> type : types) {
+                values.add(CONVERSION.convert(in.readUTF(), type));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed continuation token.", e);
+        }
+        return values;
+    }
+
+    private int signature() {
+        return 31 * properties.hashCode() + ascending.hashCode();
+    }
+
+    private ComparablePath path(int index) {
+        return builder.getComparable(properties.get(index), (Class) types.get(index));
+    }
+
+    private void add(Class<?> entityClass, String property, boolean isAscending) {
+        Class<?> type = PropertyPath.from(property, entityClass).getLeafType();
+        properties.add(property);
+        types.add(ClassUtils.resolvePrimitiveIfNecessary(type));
+        ascending.add(isAscending);
+    }
+}
@@ -0,0 +1,32 @@
+package io.alpere.crudfop.service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+public class KeysetPage<Entity> {
+
+    private final List<Entity> content;
+
+    /**
+     * Opaque token of the next page, null for the last page
+     */
+    private final String nextToken;
+
+    /**
+     * Total count of filtered entities, null if count was not requested
+     */
+    private final Long totalElements;
+
+    public KeysetPage(List<Entity> content, String nextToken, Long totalElements) {
+        this.content = Collections.unmodifiableList(content);
+        this.nextToken = nextToken;
+        this.totalElements = totalElements;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
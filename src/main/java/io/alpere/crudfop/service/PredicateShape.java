@@ -0,0 +1,136 @@
+package io.alpere.crudfop.service;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Predicate normalized to shape with constants replaced by placeholders and list of constants.
+ * Shapes with operators which change constants on serialization, duplicate constants, parameters,
+ * templates and subqueries are not cacheable.
+ */
+@Getter
+final class PredicateShape {
+    private static final Set<Operator> UNCACHEABLE_OPERATORS = new HashSet<>(Arrays.asList(
+            Ops.LIKE, Ops.LIKE_IC, Ops.LIKE_ESCAPE, Ops.LIKE_ESCAPE_IC,
+            Ops.STARTS_WITH, Ops.STARTS_WITH_IC, Ops.ENDS_WITH, Ops.ENDS_WITH_IC,
+            Ops.STRING_CONTAINS, Ops.STRING_CONTAINS_IC, Ops.EQ_IGNORE_CASE,
+            Ops.MATCHES, Ops.MATCHES_IC, Ops.INSTANCE_OF));
+
+    private final Predicate predicate;
+    private final String key;
+    private final List<Object> constants;
+    private final boolean cacheable;
+
+    private PredicateShape(Predicate predicate, String key, List<Object> constants, boolean cacheable) {
+        this.predicate = predicate;
+        this.key = key;
+        this.constants = constants;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Normalize predicate
+     *
+     * @param predicate predicate
+     * @return shape of predicate
+     */
+    static PredicateShape of(Predicate predicate) {
+        Context context = new Context();
+        predicate.accept(ShapeVisitor.INSTANCE, context);
+        return new PredicateShape(predicate, context.key.toString(), Collections.unmodifiableList(context.constants),
+                context.cacheable);
+    }
+
+    private static final class Context {
+        private final StringBuilder key = new StringBuilder();
+        private final List<Object> constants = new ArrayList<>();
+        private boolean cacheable = true;
+    }
+
+    private static final class ShapeVisitor implements Visitor<Void, Context> {
+        private static final ShapeVisitor INSTANCE = new ShapeVisitor();
+
+        @Override
+        public Void visit(Constant<?> expr, Context context) {
+            Object constant = expr.getConstant();
+            if (context.constants.contains(constant)
+                    || constant instanceof Collection && ((Collection<?>) constant).isEmpty()) {
+                context.cacheable = false;
+            }
+            context.constants.add(constant);
+            // serializer converts numeric constants to type of path, so compiled query fits one constant type
+            context.key.append('?').append(constant.getClass().getName());
+            if (constant instanceof Collection && !((Collection<?>) constant).isEmpty()) {
+                Object element = ((Collection<?>) constant).iterator().next();
+                context.key.append('<').append(element == null ? "null" : element.getClass().getName()).append('>');
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Context context) {
+            context.cacheable = false;
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Context context) {
+            if (UNCACHEABLE_OPERATORS.contains(expr.getOperator())) {
+                context.cacheable = false;
+            }
+            context.key.append(expr.getOperator().name()).append('(');
+            List<Expression<?>> args = expr.getArgs();
+            for (int i = 0; i < args.size() && context.cacheable; i++) {
+                if (i > 0) {
+                    context.key.append(',');
+                }
+                args.get(i).accept(this, context);
+            }
+            context.key.append(')');
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Context context) {
+            context.cacheable = false;
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Context context) {
+            context.key.append(expr);
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Context context) {
+            context.cacheable = false;
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Context context) {
+            context.cacheable = false;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.alpere.crudfop.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Options of parallel chunked processing
+ */
+@Getter
+@Builder
+public class ProcessOptions {
+    /**
+     * Count of entities processed in one transaction
+     */
+    @Builder.Default
+    private final int chunkSize = CrudServiceImpl.DEFAULT_BATCH_SIZE;
+
+    /**
+     * Count of chunks processed at once
+     */
+    @Builder.Default
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Shared executor of chunks, chunks are processed one by one on calling thread without executor
+     */
+    private final CrudTaskExecutor executor;
+
+    /**
+     * Name of job for checkpoints, job is not resumable without name
+     */
+    private final String jobName;
+
+    /**
+     * Storage of checkpoints, job is not resumable without store
+     */
+    private final CheckpointStore checkpointStore;
+
+    public static ProcessOptions defaults() {
+        return ProcessOptions.builder().build();
+    }
+
+    boolean isResumable() {
+        return jobName != null && checkpointStore != null;
+    }
+}
@@ -0,0 +1,21 @@
+package io.alpere.crudfop.service;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+public class ProcessResult {
+
+    private final long processed;
+
+    private final long chunks;
+
+    private final UUID lastId;
+
+    public ProcessResult(long processed, long chunks, UUID lastId) {
+        this.processed = processed;
+        this.chunks = chunks;
+        this.lastId = lastId;
+    }
+}
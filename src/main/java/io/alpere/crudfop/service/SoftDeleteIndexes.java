@@ -0,0 +1,93 @@
+package io.alpere.crudfop.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.persistence.EntityManager;
+
+/**
+ * DDL of partial indexes matching the live and archived scopes of services, PostgreSQL syntax.
+ * Live index serves queries of crud service, which always filter by deleted_at is null,
+ * archived index serves archive service and purge by deletion time.
+ */
+public final class SoftDeleteIndexes {
+    private static final String ID = "id";
+    private static final String DELETED_AT = "deletedAt";
+
+    private SoftDeleteIndexes() {
+    }
+
+    /**
+     * Get DDL of live and archived partial indexes
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @param properties    indexed properties of live index, id if empty
+     * @return create index statements
+     */
+    public static List<String> ddl(EntityManager entityManager, Class<?> entityClass, String... properties) {
+        List<String> statements = new ArrayList<>();
+        statements.add(liveIndex(entityManager, entityClass, properties));
+        statements.add(archivedIndex(entityManager, entityClass));
+        return statements;
+    }
+
+    /**
+     * Get DDL of partial index of not deleted rows
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @param properties    indexed properties, id if empty
+     * @return create index statement
+     */
+    public static String liveIndex(EntityManager entityManager, Class<?> entityClass, String... properties) {
+        AbstractEntityPersister persister = persister(entityManager, entityClass);
+        List<String> columns = new ArrayList<>();
+        for (String property : properties.length == 0 ? new String[]{ID} : properties) {
+            columns.addAll(columns(persister, property));
+        }
+        String table = persister.getTableName();
+        return String.format("create index if not exists %s on %s (%s) where %s is null",
+                indexName(table, "live", columns), table, String.join(", ", columns), deletedAt(persister));
+    }
+
+    /**
+     * Get DDL of partial index of deleted rows by deletion time
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @return create index statement
+     */
+    public static String archivedIndex(EntityManager entityManager, Class<?> entityClass) {
+        AbstractEntityPersister persister = persister(entityManager, entityClass);
+        String table = persister.getTableName();
+        String deletedAt = deletedAt(persister);
+        return String.format("create index if not exists %s on %s (%s) where %s is not null",
+                indexName(table, "archived", Arrays.asList(deletedAt)), table, deletedAt, deletedAt);
+    }
+
+    private static List<String> columns(AbstractEntityPersister persister, String property) {
+        if (ID.equals(property)) {
+            return Arrays.asList(persister.getIdentifierColumnNames());
+        }
+        return Arrays.asList(persister.getPropertyColumnNames(property));
+    }
+
+    private static String deletedAt(AbstractEntityPersister persister) {
+        return persister.getPropertyColumnNames(DELETED_AT)[0];
+    }
+
+    private static String indexName(String table, String scope, List<String> columns) {
+        String name = table.replace('.', '_') + "_" + scope + "_" + String.join("_", columns) + "_idx";
+        return name.length() > 63 ? name.substring(0, 63) : name;
+    }
+
+    private static AbstractEntityPersister persister(EntityManager entityManager, Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        return (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(entityClass);
+    }
+}
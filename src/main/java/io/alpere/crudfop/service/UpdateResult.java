@@ -0,0 +1,33 @@
+package io.alpere.crudfop.service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+public class UpdateResult {
+
+    private final List<UUID> updated;
+
+    /**
+     * Ids of entities with other version, deleted or not found
+     */
+    private final List<UUID> conflicted;
+
+    /**
+     * Ids of entities the driver reported no row count for or failed to update, should be reloaded to check
+     */
+    private final List<UUID> unknown;
+
+    public UpdateResult(List<UUID> updated, List<UUID> conflicted) {
+        this(updated, conflicted, Collections.emptyList());
+    }
+
+    public UpdateResult(List<UUID> updated, List<UUID> conflicted, List<UUID> unknown) {
+        this.updated = Collections.unmodifiableList(updated);
+        this.conflicted = Collections.unmodifiableList(conflicted);
+        this.unknown = Collections.unmodifiableList(unknown);
+    }
+}
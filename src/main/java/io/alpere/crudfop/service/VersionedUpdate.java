@@ -0,0 +1,85 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.model.BaseEntity;
+import io.alpere.crudfop.model.LongVersionedEntity;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Partial change of one entity applied only if entity still has expected version
+ */
+@Getter
+public class VersionedUpdate {
+
+    private final UUID id;
+
+    /**
+     * Expected update time, or long version for {@link LongVersionedEntity}
+     */
+    private final Object version;
+
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+
+    private VersionedUpdate(UUID id, Object version) {
+        this.id = Objects.requireNonNull(id, "Id of update should not be null.");
+        this.version = Objects.requireNonNull(version, "Version of update should not be null.");
+    }
+
+    /**
+     * Create update of entity with expected update time
+     *
+     * @param id        id of entity
+     * @param updatedAt expected update time
+     * @return update without changes
+     */
+    public static VersionedUpdate of(UUID id, Instant updatedAt) {
+        return new VersionedUpdate(id, updatedAt);
+    }
+
+    /**
+     * Create update of entity with expected long version
+     *
+     * @param id      id of entity
+     * @param version expected version
+     * @return update without changes
+     */
+    public static VersionedUpdate of(UUID id, long version) {
+        return new VersionedUpdate(id, version);
+    }
+
+    /**
+     * Create update of entity with its current version
+     *
+     * @param entity loaded entity
+     * @return update without changes
+     */
+    public static VersionedUpdate of(BaseEntity entity) {
+        if (entity instanceof LongVersionedEntity) {
+            return of(entity.getId(), ((LongVersionedEntity) entity).getVersion());
+        }
+        return of(entity.getId(), entity.getUpdatedAt());
+    }
+
+    /**
+     * Set new value of entity property
+     *
+     * @param property name of property
+     * @param value    new value
+     * @return this update
+     */
+    public VersionedUpdate set(String property, @Nullable Object value) {
+        changes.put(Objects.requireNonNull(property, "Property of update should not be null."), value);
+        return this;
+    }
+
+    public Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+}
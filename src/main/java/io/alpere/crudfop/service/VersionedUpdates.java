@@ -0,0 +1,253 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.model.LongVersionedEntity;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+
+/**
+ * Batched JDBC updates with version check. Updates with the same changed properties share one statement.
+ */
+final class VersionedUpdates {
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String UPDATED_BY = "updatedBy";
+    private static final String VERSION = "version";
+    private static final Set<String> PROTECTED = new HashSet<>(Arrays.asList(
+            "id", "createdAt", "createdBy", UPDATED_AT, UPDATED_BY, "deletedAt", "deletedBy", VERSION));
+
+    private VersionedUpdates() {
+    }
+
+    /**
+     * Apply updates with statements {@code update ... where id = ? and version = ?}.
+     * Persistence context is flushed before and cleared after updates. Rows the driver reports
+     * {@link Statement#SUCCESS_NO_INFO} or {@link Statement#EXECUTE_FAILED} for are returned as unknown.
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @param updates       updates of entities
+     * @param user          user set as updated by
+     * @param liveOnly      do not update deleted to archive entities
+     * @param batchSize     max count of updates in one JDBC batch
+     * @return ids of updated, conflicted and unknown entities
+     */
+    static UpdateResult execute(EntityManager entityManager, Class<?> entityClass, Iterable<VersionedUpdate> updates,
+                                String user, boolean liveOnly, int batchSize) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory().getMetamodel()
+                .entityPersister(entityClass);
+        boolean longVersion = isLongVersioned(entityClass);
+
+        Map<List<String>, List<VersionedUpdate>> groups = new LinkedHashMap<>();
+        for (VersionedUpdate update : updates) {
+            validate(persister, update, longVersion);
+            groups.computeIfAbsent(new ArrayList<>(new TreeSet<>(update.getChanges().keySet())),
+                    key -> new ArrayList<>()).add(update);
+        }
+
+        List<UUID> updated = new ArrayList<>();
+        List<UUID> conflicted = new ArrayList<>();
+        List<UUID> unknown = new ArrayList<>();
+        entityManager.flush();
+        session.doWork(connection -> {
+            for (Map.Entry<List<String>, List<VersionedUpdate>> group : groups.entrySet()) {
+                List<String> properties = group.getKey();
+                String sql = sql(persister, properties, longVersion, liveOnly);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (List<VersionedUpdate> chunk : Batches.partition(group.getValue(), batchSize)) {
+                        for (VersionedUpdate update : chunk) {
+                            bind(statement, session, persister, properties, update, user, longVersion);
+                            statement.addBatch();
+                        }
+                        int[] counts = statement.executeBatch();
+                        for (int i = 0; i < chunk.size(); i++) {
+                            int count = i < counts.length ? counts[i] : Statement.EXECUTE_FAILED;
+                            if (count > 0) {
+                                updated.add(chunk.get(i).getId());
+                            } else if (count == 0) {
+                                conflicted.add(chunk.get(i).getId());
+                            } else {
+                                unknown.add(chunk.get(i).getId());
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        entityManager.clear();
+        return new UpdateResult(updated, conflicted, unknown);
+    }
+
+    /**
+     * Delete entities to archive with one update statement, like {@code BaseRepository.softDeleteAllById},
+     * and increment version of {@link LongVersionedEntity}
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @param ids           ids of entities
+     * @param deletedAt     time of deletion
+     * @param deletedBy     user who deletes entities
+     * @return count of updated rows
+     */
+    static int softDelete(EntityManager entityManager, Class<?> entityClass, Collection<UUID> ids,
+                          Instant deletedAt, String deletedBy) {
+        entityManager.flush();
+        int count = entityManager.createQuery("update " + entityName(entityManager, entityClass) + " e "
+                + "set e.deletedAt = :deletedAt, e.deletedBy = :deletedBy, "
+                + "e.updatedAt = :deletedAt, e.updatedBy = :deletedBy" + incrementVersion(entityClass)
+                + " where e.id in :ids and e.deletedAt is null")
+                .setParameter("deletedAt", deletedAt)
+                .setParameter("deletedBy", deletedBy)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.clear();
+        return count;
+    }
+
+    /**
+     * Restore entities from archive with one update statement, like {@code BaseRepository.restoreAllById},
+     * and increment version of {@link LongVersionedEntity}
+     *
+     * @param entityManager entity manager
+     * @param entityClass   class of entity
+     * @param ids           ids of archived entities
+     * @param updatedAt     time of restore
+     * @param updatedBy     user who restores entities
+     * @return count of updated rows
+     */
+    static int restore(EntityManager entityManager, Class<?> entityClass, Collection<UUID> ids,
+                       Instant updatedAt, String updatedBy) {
+        entityManager.flush();
+        int count = entityManager.createQuery("update " + entityName(entityManager, entityClass) + " e "
+                + "set e.deletedAt = null, e.deletedBy = null, "
+                + "e.updatedAt = :updatedAt, e.updatedBy = :updatedBy" + incrementVersion(entityClass)
+                + " where e.id in :ids and e.deletedAt is not null")
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("updatedBy", updatedBy)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.clear();
+        return count;
+    }
+
+    /**
+     * Get JPQL assignment incrementing version of {@link LongVersionedEntity} with alias {@code e}
+     *
+     * @param entityClass class of entity
+     * @return assignment with leading comma or empty string
+     */
+    static String incrementVersion(Class<?> entityClass) {
+        return isLongVersioned(entityClass) ? ", e.version = e.version + 1" : "";
+    }
+
+    /**
+     * Entity has long version, which bulk updates should increment
+     *
+     * @param entityClass class of entity
+     * @return true for subclasses of {@link LongVersionedEntity}
+     */
+    static boolean isLongVersioned(Class<?> entityClass) {
+        return LongVersionedEntity.class.isAssignableFrom(entityClass);
+    }
+
+    private static String entityName(EntityManager entityManager, Class<?> entityClass) {
+        return entityManager.getMetamodel().entity(entityClass).getName();
+    }
+
+    private static String sql(AbstractEntityPersister persister, List<String> properties, boolean longVersion,
+                              boolean liveOnly) {
+        StringBuilder sql = new StringBuilder("update ").append(persister.getTableName()).append(" set ");
+        for (String property : properties) {
+            for (String column : persister.getPropertyColumnNames(property)) {
+                sql.append(column).append(" = ?, ");
+            }
+        }
+        sql.append(column(persister, UPDATED_AT)).append(" = ?, ")
+                .append(column(persister, UPDATED_BY)).append(" = ?");
+        String versionColumn = column(persister, longVersion ? VERSION : UPDATED_AT);
+        if (longVersion) {
+            sql.append(", ").append(versionColumn).append(" = ").append(versionColumn).append(" + 1");
+        }
+        sql.append(" where ").append(persister.getIdentifierColumnNames()[0]).append(" = ? and ")
+                .append(versionColumn).append(" = ?");
+        if (liveOnly) {
+            sql.append(" and ").append(column(persister, "deletedAt")).append(" is null");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, SessionImplementor session,
+                             AbstractEntityPersister persister, List<String> properties, VersionedUpdate update,
+                             String user, boolean longVersion) throws SQLException {
+        int index = 1;
+        for (String property : properties) {
+            Type type = persister.getPropertyType(property);
+            type.nullSafeSet(statement, update.getChanges().get(property), index, session);
+            index += type.getColumnSpan(session.getFactory());
+        }
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Instant updatedAt = longVersion ? now : next((Instant) update.getVersion(), now);
+        persister.getPropertyType(UPDATED_AT).nullSafeSet(statement, updatedAt, index++, session);
+        persister.getPropertyType(UPDATED_BY).nullSafeSet(statement, user, index++, session);
+        persister.getIdentifierType().nullSafeSet(statement, update.getId(), index++, session);
+        persister.getPropertyType(longVersion ? VERSION : UPDATED_AT)
+                .nullSafeSet(statement, update.getVersion(), index, session);
+    }
+
+    /**
+     * New update time should differ from expected one, database keeps microseconds
+     */
+    private static Instant next(Instant expected, Instant now) {
+        return now.isAfter(expected) ? now : expected.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+    }
+
+    private static void validate(AbstractEntityPersister persister, VersionedUpdate update, boolean longVersion) {
+        String entityName = persister.getMappedClass().getSimpleName();
+        Class<?> versionType = longVersion ? Long.class : Instant.class;
+        if (!versionType.isInstance(update.getVersion())) {
+            throw new IllegalArgumentException(String.format("Version of [%s] should be %s.",
+                    entityName, versionType.getSimpleName()));
+        }
+        if (update.getChanges().isEmpty()) {
+            throw new IllegalArgumentException(String.format("Update of [%s] with id %s has no changes.",
+                    entityName, update.getId()));
+        }
+        for (String property : update.getChanges().keySet()) {
+            if (PROTECTED.contains(property)) {
+                throw new IllegalArgumentException(String.format("Property %s of [%s] can not be updated.",
+                        property, entityName));
+            }
+            try {
+                if (persister.getPropertyType(property).isCollectionType()) {
+                    throw new IllegalArgumentException(String.format("Collection %s of [%s] can not be updated.",
+                            property, entityName));
+                }
+            } catch (HibernateException e) {
+                throw new IllegalArgumentException(String.format("Unknown property %s of [%s].",
+                        property, entityName), e);
+            }
+        }
+    }
+
+    private static String column(AbstractEntityPersister persister, String property) {
+        return persister.getPropertyColumnNames(property)[0];
+    }
+}
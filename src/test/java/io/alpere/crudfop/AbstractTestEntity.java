@@ -0,0 +1,21 @@
+package io.alpere.crudfop;
+
+import io.alpere.crudfop.model.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.MappedSuperclass;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@MappedSuperclass
+public abstract class AbstractTestEntity extends BaseEntity {
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "amount", nullable = false)
+    private long amount;
+}
@@ -0,0 +1,15 @@
+package io.alpere.crudfop;
+
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Archive entity of {@link TestEntity} with the same columns in cold storage table
+ */
+@NoArgsConstructor
+@Entity
+@Table(name = "archived_test_entity")
+public class ArchivedTestEntity extends AbstractTestEntity {
+}
@@ -0,0 +1,103 @@
+package io.alpere.crudfop;
+
+import io.alpere.crudfop.audit.AuditProvider;
+import io.alpere.crudfop.audit.TemplateAuditProvider;
+import io.alpere.crudfop.cache.QueryCache;
+import io.alpere.crudfop.service.ArchivePurgeEngine;
+import io.alpere.crudfop.service.ArchiveServiceImpl;
+import io.alpere.crudfop.service.ArchiveTier;
+import io.alpere.crudfop.service.CrudServiceImpl;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Spring context of tests with embedded H2 database
+ */
+@SpringBootApplication
+@EnableJpaAuditing(auditorAwareRef = "auditProvider")
+public class TestApplication {
+
+    @Bean
+    public AuditProvider auditProvider() {
+        return new TemplateAuditProvider();
+    }
+
+    @Bean
+    public QueryCache queryCache() {
+        return new QueryCache();
+    }
+
+    @Bean
+    public CrudServiceImpl<TestEntity> crudService(TestEntityRepository repository, AuditProvider auditProvider,
+                                                   QueryCache queryCache) throws Exception {
+        CrudServiceImpl<TestEntity> service = new CrudServiceImpl<>(repository, auditProvider, TestEntity.class);
+        service.setQueryCache(queryCache);
+        return service;
+    }
+
+    @Bean
+    public ArchiveTier archiveTier(EntityManagerFactory entityManagerFactory,
+                                   PlatformTransactionManager transactionManager) {
+        ArchiveTier archiveTier = new ArchiveTier(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), transactionManager);
+        archiveTier.register(TestEntity.class, ArchivedTestEntity.class);
+        return archiveTier;
+    }
+
+    @Bean
+    public ArchiveServiceImpl<ArchivedTestEntity> archivedService(ArchivedTestEntityRepository repository,
+                                                                  AuditProvider auditProvider,
+                                                                  ArchiveTier archiveTier) throws Exception {
+        ArchiveServiceImpl<ArchivedTestEntity> service = new ArchiveServiceImpl<>(repository, auditProvider,
+                ArchivedTestEntity.class);
+        service.setArchiveTier(archiveTier);
+        return service;
+    }
+
+    @Bean
+    public ArchivePurgeEngine purgeEngine(EntityManagerFactory entityManagerFactory,
+                                          PlatformTransactionManager transactionManager) {
+        ArchivePurgeEngine purgeEngine = new ArchivePurgeEngine(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), transactionManager);
+        purgeEngine.setPause(Duration.ZERO);
+        return purgeEngine;
+    }
+
+    /**
+     * Create not saved entities
+     *
+     * @param count count of entities
+     * @return list of entities
+     */
+    public static List<TestEntity> entities(int count) {
+        List<TestEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TestEntity entity = new TestEntity();
+            entity.setName("entity-" + i);
+            entity.setAmount(i);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Get ids of entities
+     *
+     * @param entities entities
+     * @return ids in order of entities
+     */
+    public static List<UUID> ids(List<? extends AbstractTestEntity> entities) {
+        List<UUID> ids = new ArrayList<>(entities.size());
+        entities.forEach(entity -> ids.add(entity.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,12 @@
+package io.alpere.crudfop;
+
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@NoArgsConstructor
+@Entity
+@Table(name = "test_entity")
+public class TestEntity extends AbstractTestEntity {
+}
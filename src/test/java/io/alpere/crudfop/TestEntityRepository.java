@@ -0,0 +1,6 @@
+package io.alpere.crudfop;
+
+import io.alpere.crudfop.repository.BaseRepository;
+
+public interface TestEntityRepository extends BaseRepository<TestEntity> {
+}
@@ -0,0 +1,66 @@
+package io.alpere.crudfop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCacheTest {
+
+    @Test
+    void shapeIsCompiledOncePerEntityClass() {
+        QueryCache cache = new QueryCache();
+        AtomicInteger compilations = new AtomicInteger();
+        Supplier<CompiledQuery> compiler = compiler(compilations);
+
+        CompiledQuery first = cache.get(String.class, "EQ(name,?)", compiler);
+        CompiledQuery second = cache.get(String.class, "EQ(name,?)", compiler);
+        cache.get(Integer.class, "EQ(name,?)", compiler);
+
+        assertThat(second).isSameAs(first);
+        assertThat(compilations).hasValue(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void leastRecentlyUsedShapeIsEvicted() {
+        QueryCache cache = new QueryCache(2);
+        AtomicInteger compilations = new AtomicInteger();
+        Supplier<CompiledQuery> compiler = compiler(compilations);
+
+        cache.get(String.class, "a", compiler);
+        cache.get(String.class, "b", compiler);
+        cache.get(String.class, "a", compiler);
+        cache.get(String.class, "c", compiler);
+        cache.get(String.class, "a", compiler);
+        cache.get(String.class, "b", compiler);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(compilations).hasValue(4);
+    }
+
+    @Test
+    void uncacheableShapesAreNotCountedAsHits() {
+        QueryCache cache = new QueryCache();
+
+        cache.get(String.class, "a", () -> CompiledQuery.UNCACHEABLE);
+        cache.get(String.class, "a", () -> CompiledQuery.UNCACHEABLE);
+        cache.markUncacheable();
+
+        assertThat(cache.getHitCount()).isZero();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getUncacheableCount()).isEqualTo(2);
+        assertThat(cache.getHitRate()).isZero();
+    }
+
+    private static Supplier<CompiledQuery> compiler(AtomicInteger compilations) {
+        return () -> {
+            compilations.incrementAndGet();
+            return new CompiledQuery("select e from Entity e", new int[]{1}, "select count(e) from Entity e",
+                    new int[]{1});
+        };
+    }
+}
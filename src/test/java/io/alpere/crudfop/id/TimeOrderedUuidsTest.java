@@ -0,0 +1,70 @@
+package io.alpere.crudfop.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidsTest {
+    private static final int COUNT = 20_000;
+    private static final int THREADS = 4;
+
+    @Test
+    void idsAreMonotonicBeyondCounterOfOneMillisecond() {
+        UUID previous = TimeOrderedUuids.next();
+        for (int i = 0; i < COUNT; i++) {
+            UUID next = TimeOrderedUuids.next();
+            assertThat(next).isGreaterThan(previous);
+            assertThat(next.toString()).isGreaterThan(previous.toString());
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsHaveVersionSevenAndUnixTime() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuids.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndMonotonicPerThread() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                UUID previous = null;
+                boolean monotonic = true;
+                for (int j = 0; j < COUNT; j++) {
+                    UUID next = TimeOrderedUuids.next();
+                    monotonic &= previous == null || next.compareTo(previous) > 0;
+                    ids.add(next);
+                    previous = next;
+                }
+                return monotonic;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(THREADS * COUNT);
+    }
+}
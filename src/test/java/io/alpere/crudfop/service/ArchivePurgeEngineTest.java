@@ -0,0 +1,104 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.TestApplication;
+import io.alpere.crudfop.TestEntity;
+import io.alpere.crudfop.TestEntityRepository;
+import io.alpere.crudfop.change.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ArchivePurgeEngineTest {
+
+    @Autowired
+    private CrudService<TestEntity> crudService;
+    @Autowired
+    private ArchivePurgeEngine purgeEngine;
+    @Autowired
+    private TestEntityRepository repository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<UUID> purgedIds = Collections.synchronizedList(new ArrayList<>());
+    private List<UUID> ids;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        ids = TestApplication.ids(crudService.saveInBatch(TestApplication.entities(6)));
+        crudService.softDeleteAllInBatch(ids.subList(0, 5));
+        deletedAt(ids.subList(0, 3), Instant.now().minus(Duration.ofDays(2)));
+        purgeEngine.retain(TestEntity.class, Duration.ofDays(1));
+        purgeEngine.setChangeListener((type, entityClass, id, entity) -> {
+            if (type == ChangeType.PURGED) {
+                purgedIds.add(id);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        purgeEngine.setChangeListener(null);
+        purgeEngine.setBatchSize(CrudServiceImpl.DEFAULT_BATCH_SIZE);
+    }
+
+    @Test
+    void onlyExpiredArchivedEntitiesArePurged() {
+        assertThat(purgeEngine.purge(TestEntity.class)).isEqualTo(3);
+
+        assertThat(purgedIds).containsExactlyInAnyOrderElementsOf(ids.subList(0, 3));
+        assertThat(TestApplication.ids(repository.findAll())).containsExactlyInAnyOrderElementsOf(ids.subList(3, 6));
+        assertThat(purgeEngine.purge(TestEntity.class)).isZero();
+    }
+
+    @Test
+    void purgeIsChunkedAndReportsDeletedIdsOnly() {
+        purgeEngine.setBatchSize(2);
+        long chunks = purgeEngine.getChunkCount();
+        long purged = purgeEngine.getPurgedCount();
+
+        assertThat(purgeEngine.purge(TestEntity.class)).isEqualTo(3);
+
+        assertThat(purgeEngine.getChunkCount() - chunks).isEqualTo(2);
+        assertThat(purgeEngine.getPurgedCount() - purged).isEqualTo(3);
+        assertThat(purgedIds).hasSize(3).doesNotHaveDuplicates();
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void purgeAllReportsCountByClass() {
+        assertThat(purgeEngine.purgeAll()).containsEntry(TestEntity.class, 3L);
+    }
+
+    @Test
+    void retentionShouldNotBeNegative() {
+        assertThatThrownBy(() -> purgeEngine.retain(TestEntity.class, Duration.ofDays(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void deletedAt(List<UUID> entityIds, Instant deletedAt) {
+        new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("update TestEntity e set e.deletedAt = :deletedAt where e.id in :ids")
+                .setParameter("deletedAt", deletedAt)
+                .setParameter("ids", entityIds)
+                .executeUpdate());
+    }
+}
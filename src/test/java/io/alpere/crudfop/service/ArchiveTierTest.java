@@ -0,0 +1,116 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.ArchivedTestEntity;
+import io.alpere.crudfop.ArchivedTestEntityRepository;
+import io.alpere.crudfop.TestApplication;
+import io.alpere.crudfop.TestEntity;
+import io.alpere.crudfop.TestEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ArchiveTierTest {
+
+    @Autowired
+    private CrudService<TestEntity> crudService;
+    @Autowired
+    private ArchiveService<ArchivedTestEntity> archivedService;
+    @Autowired
+    private ArchiveTier archiveTier;
+    @Autowired
+    private TestEntityRepository repository;
+    @Autowired
+    private ArchivedTestEntityRepository archivedRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<UUID> ids;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        archivedRepository.deleteAllInBatch();
+        ids = TestApplication.ids(crudService.saveInBatch(TestApplication.entities(5)));
+        crudService.softDeleteAllInBatch(ids.subList(0, 3));
+    }
+
+    @Test
+    void onlyDeletedEntitiesAreMoved() {
+        assertThat(archiveTier.moveArchived(TestEntity.class)).isEqualTo(3);
+
+        assertThat(TestApplication.ids(repository.findAll())).containsExactlyInAnyOrderElementsOf(ids.subList(3, 5));
+        List<ArchivedTestEntity> archived = archivedRepository.findAll();
+        assertThat(TestApplication.ids(archived)).containsExactlyInAnyOrderElementsOf(ids.subList(0, 3));
+        assertThat(archived).allSatisfy(entity -> {
+            assertThat(entity.getDeletedAt()).isNotNull();
+            assertThat(entity.getName()).startsWith("entity-");
+        });
+        assertThat(archiveTier.moveArchived(TestEntity.class)).isZero();
+    }
+
+    @Test
+    void movesAreChunked() {
+        archiveTier.setBatchSize(2);
+        try {
+            assertThat(archiveTier.moveArchived(TestEntity.class)).isEqualTo(3);
+        } finally {
+            archiveTier.setBatchSize(CrudServiceImpl.DEFAULT_BATCH_SIZE);
+        }
+
+        assertThat(archivedRepository.count()).isEqualTo(3);
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void restoreMovesEntitiesBackToLiveTable() {
+        archiveTier.moveArchived(TestEntity.class);
+        UUID missingId = UUID.randomUUID();
+
+        BatchResult result = archivedService.restoreAllInBatch(Arrays.asList(ids.get(0), ids.get(1), missingId));
+
+        assertThat(result.getAffected()).containsExactlyInAnyOrder(ids.get(0), ids.get(1));
+        assertThat(result.getMissing()).containsExactly(missingId);
+        assertThat(TestApplication.ids(archivedRepository.findAll())).containsExactly(ids.get(2));
+        TestEntity restored = crudService.findOne(ids.get(0));
+        assertThat(restored.getDeletedAt()).isNull();
+        assertThat(restored.getDeletedBy()).isNull();
+        assertThat(restored.getName()).isEqualTo("entity-0");
+    }
+
+    @Test
+    void restoreOfLoadedEntityIsNotWrittenBackToArchive() {
+        archiveTier.moveArchived(TestEntity.class);
+
+        // entity is loaded and restored in one transaction, so it is managed when rows are moved
+        ArchivedTestEntity restored = archivedService.restore(ids.get(0));
+
+        assertThat(restored.getDeletedAt()).isNull();
+        assertThat(archivedRepository.existsById(ids.get(0))).isFalse();
+        assertThat(crudService.findOne(ids.get(0)).getDeletedAt()).isNull();
+    }
+
+    @Test
+    void restoreOfLoadedEntitiesIsNotWrittenBackToArchive() {
+        archiveTier.moveArchived(TestEntity.class);
+
+        List<ArchivedTestEntity> archived = new TransactionTemplate(transactionManager).execute(status -> {
+            List<ArchivedTestEntity> entities = archivedRepository.findAllById(ids.subList(0, 2));
+            archivedService.restore(entities);
+            return entities;
+        });
+
+        assertThat(archived).allSatisfy(entity -> assertThat(entity.getDeletedAt()).isNull());
+        assertThat(TestApplication.ids(archivedRepository.findAll())).containsExactly(ids.get(2));
+        assertThat(crudService.findAllById(ids.subList(0, 2))).hasSize(2);
+    }
+}
@@ -0,0 +1,73 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.QTestEntity;
+import io.alpere.crudfop.TestApplication;
+import io.alpere.crudfop.TestEntity;
+import io.alpere.crudfop.TestEntityRepository;
+import io.alpere.crudfop.cache.QueryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CrudServiceQueryCacheTest {
+    private static final QTestEntity ENTITY = QTestEntity.testEntity;
+    private static final List<Order> ORDERS = Collections.singletonList(Order.asc("amount"));
+
+    @Autowired
+    private CrudService<TestEntity> crudService;
+    @Autowired
+    private TestEntityRepository repository;
+    @Autowired
+    private QueryCache queryCache;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        queryCache.invalidateAll();
+        crudService.saveInBatch(TestApplication.entities(10));
+    }
+
+    @Test
+    void predicatesWithOtherValuesShareCompiledQuery() {
+        long hits = queryCache.getHitCount();
+        long misses = queryCache.getMissCount();
+
+        assertThat(crudService.findAll(ENTITY.amount.goe(5L))).hasSize(5);
+        assertThat(crudService.findAll(ENTITY.amount.goe(8L))).extracting(TestEntity::getAmount)
+                .containsExactlyInAnyOrder(8L, 9L);
+
+        assertThat(queryCache.getMissCount() - misses).isEqualTo(1);
+        assertThat(queryCache.getHitCount() - hits).isEqualTo(1);
+    }
+
+    @Test
+    void constantsOfOtherTypeDoNotShareCompiledQuery() {
+        long misses = queryCache.getMissCount();
+
+        assertThat(crudService.findAll(ENTITY.amount.goe(5L))).hasSize(5);
+        assertThat(crudService.findAll(ENTITY.amount.goe(8))).hasSize(2);
+        assertThat(crudService.findAll(ENTITY.amount.goe(3L))).hasSize(7);
+
+        assertThat(queryCache.getMissCount() - misses).isEqualTo(2);
+    }
+
+    @Test
+    void cachedPageIsCountedWithItsConstants() {
+        Page<TestEntity> first = crudService.page(ENTITY.amount.lt(6L), ORDERS, 0, 4);
+        Page<TestEntity> second = crudService.page(ENTITY.amount.lt(3L), ORDERS, 0, 4);
+
+        assertThat(first.getTotalElements()).isEqualTo(6);
+        assertThat(first.getContent()).extracting(TestEntity::getAmount).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(second.getTotalElements()).isEqualTo(3);
+        assertThat(second.getContent()).extracting(TestEntity::getAmount).containsExactly(0L, 1L, 2L);
+    }
+}
@@ -0,0 +1,104 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.TestApplication;
+import io.alpere.crudfop.TestEntity;
+import io.alpere.crudfop.TestEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class KeysetTest {
+    private static final int COUNT = 25;
+    private static final List<Order> ORDERS = Arrays.asList(Order.asc("name"), Order.desc("amount"));
+
+    @Autowired
+    private CrudService<TestEntity> crudService;
+    @Autowired
+    private TestEntityRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        List<TestEntity> entities = TestApplication.entities(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            entities.get(i).setName("entity-" + i % 4);
+            entities.get(i).setAmount(i % 3);
+        }
+        crudService.saveInBatch(entities);
+    }
+
+    @Test
+    void pagesFollowSortOrderWithoutGapsOrDuplicates() {
+        KeysetPage<TestEntity> all = crudService.keysetPage(null, ORDERS, null, COUNT, true);
+        assertThat(all.getContent()).hasSize(COUNT);
+        assertThat(all.hasNext()).isFalse();
+        assertThat(all.getTotalElements()).isEqualTo(COUNT);
+
+        List<UUID> walked = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            KeysetPage<TestEntity> page = crudService.keysetPage(null, ORDERS, token, 4, false);
+            assertThat(page.getTotalElements()).isNull();
+            walked.addAll(TestApplication.ids(page.getContent()));
+            token = page.getNextToken();
+            pages++;
+        } while (token != null);
+
+        assertThat(pages).isEqualTo(7);
+        assertThat(walked).containsExactlyElementsOf(TestApplication.ids(all.getContent()));
+    }
+
+    @Test
+    void tokenSurvivesRoundTrip() {
+        Keyset keyset = keyset(ORDERS);
+        TestEntity entity = entity("entity-1", 2);
+
+        String token = keyset.token(entity);
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(keyset.after(token).toString()).contains("entity-1", "2", entity.getId().toString());
+    }
+
+    @Test
+    void tokenOfOtherSortOrdersIsRejected() {
+        String token = keyset(ORDERS).token(entity("entity-1", 2));
+        Keyset other = keyset(Collections.singletonList(Order.asc("name")));
+
+        assertThatThrownBy(() -> other.after(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> keyset(ORDERS).after("AAAA")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nullSortValueIsRejected() {
+        assertThatThrownBy(() -> keyset(ORDERS).token(entity(null, 2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Keyset keyset(List<Order> orders) {
+        return new Keyset(TestEntity.class, EntityQueries.entityPath(TestEntity.class), orders);
+    }
+
+    private static TestEntity entity(String name, long amount) {
+        TestEntity entity = new TestEntity();
+        entity.setId(UUID.randomUUID());
+        entity.setName(name);
+        entity.setAmount(amount);
+        return entity;
+    }
+}
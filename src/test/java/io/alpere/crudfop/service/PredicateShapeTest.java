@@ -0,0 +1,52 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.QTestEntity;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PredicateShapeTest {
+    private static final QTestEntity ENTITY = QTestEntity.testEntity;
+
+    @Test
+    void predicatesWithOtherValuesShareShape() {
+        PredicateShape first = PredicateShape.of(ENTITY.name.eq("a").and(ENTITY.amount.goe(1L)));
+        PredicateShape second = PredicateShape.of(ENTITY.name.eq("b").and(ENTITY.amount.goe(2L)));
+
+        assertThat(first.isCacheable()).isTrue();
+        assertThat(second.getKey()).isEqualTo(first.getKey());
+        assertThat(second.getConstants()).containsExactly("b", 2L);
+    }
+
+    @Test
+    void typeOfConstantIsPartOfShape() {
+        PredicateShape intConstant = PredicateShape.of(ENTITY.amount.goe(1));
+        PredicateShape longConstant = PredicateShape.of(ENTITY.amount.goe(1L));
+
+        assertThat(intConstant.isCacheable()).isTrue();
+        assertThat(longConstant.isCacheable()).isTrue();
+        assertThat(intConstant.getKey()).isNotEqualTo(longConstant.getKey());
+    }
+
+    @Test
+    void otherOperatorsDoNotShareShape() {
+        PredicateShape greater = PredicateShape.of(ENTITY.amount.gt(1L));
+        PredicateShape less = PredicateShape.of(ENTITY.amount.lt(1L));
+
+        assertThat(greater.getKey()).isNotEqualTo(less.getKey());
+    }
+
+    @Test
+    void duplicateConstantsAreNotCacheable() {
+        PredicateShape shape = PredicateShape.of(ENTITY.amount.goe(1L).and(ENTITY.amount.loe(1L)));
+
+        assertThat(shape.isCacheable()).isFalse();
+    }
+
+    @Test
+    void likeIsNotCacheable() {
+        PredicateShape shape = PredicateShape.of(ENTITY.name.like("entity-%"));
+
+        assertThat(shape.isCacheable()).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package io.alpere.crudfop.service;
+
+import io.alpere.crudfop.TestApplication;
+import io.alpere.crudfop.TestEntity;
+import io.alpere.crudfop.TestEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VersionedUpdatesTest {
+
+    @Autowired
+    private CrudService<TestEntity> crudService;
+    @Autowired
+    private TestEntityRepository repository;
+
+    private List<UUID> ids;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        ids = TestApplication.ids(crudService.saveInBatch(TestApplication.entities(3)));
+    }
+
+    @Test
+    void onlyEntitiesWithExpectedVersionAreUpdated() {
+        TestEntity current = crudService.findOne(ids.get(0));
+        UUID missingId = UUID.randomUUID();
+
+        UpdateResult result = crudService.updateInBatch(Arrays.asList(
+                VersionedUpdate.of(current).set("name", "updated").set("amount", 42L),
+                VersionedUpdate.of(ids.get(1), Instant.EPOCH).set("name", "stale"),
+                VersionedUpdate.of(missingId, Instant.EPOCH).set("name", "missing")));
+
+        assertThat(result.getUpdated()).containsExactly(ids.get(0));
+        assertThat(result.getConflicted()).containsExactly(ids.get(1), missingId);
+        assertThat(result.getUnknown()).isEmpty();
+        TestEntity updated = crudService.findOne(ids.get(0));
+        assertThat(updated.getName()).isEqualTo("updated");
+        assertThat(updated.getAmount()).isEqualTo(42L);
+        assertThat(updated.getUpdatedAt()).isAfter(current.getUpdatedAt());
+        assertThat(crudService.findOne(ids.get(1)).getName()).isEqualTo("entity-1");
+    }
+
+    @Test
+    void secondUpdateWithSameVersionConflicts() {
+        VersionedUpdate update = VersionedUpdate.of(crudService.findOne(ids.get(0))).set("name", "first");
+
+        crudService.updateInBatch(Collections.singletonList(update));
+        UpdateResult result = crudService.updateInBatch(Collections.singletonList(update));
+
+        assertThat(result.getUpdated()).isEmpty();
+        assertThat(result.getConflicted()).containsExactly(ids.get(0));
+    }
+
+    @Test
+    void deletedEntitiesAreNotUpdated() {
+        crudService.softDeleteAllInBatch(Collections.singletonList(ids.get(0)));
+        TestEntity deleted = repository.findById(ids.get(0)).orElseThrow();
+
+        UpdateResult result = crudService.updateInBatch(Collections.singletonList(
+                VersionedUpdate.of(deleted).set("name", "updated")));
+
+        assertThat(result.getConflicted()).containsExactly(ids.get(0));
+        assertThat(repository.findById(ids.get(0)).orElseThrow().getName()).isEqualTo("entity-0");
+    }
+
+    @Test
+    void invalidUpdatesAreRejected() {
+        UUID id = ids.get(0);
+
+        assertThatThrownBy(() -> crudService.updateInBatch(Collections.singletonList(
+                VersionedUpdate.of(id, Instant.now()).set("deletedAt", null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> crudService.updateInBatch(Collections.singletonList(
+                VersionedUpdate.of(id, Instant.now()).set("unknown", 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> crudService.updateInBatch(Collections.singletonList(
+                VersionedUpdate.of(id, 1L).set("name", "updated"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> crudService.updateInBatch(Collections.singletonList(
+                VersionedUpdate.of(id, Instant.now()))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}